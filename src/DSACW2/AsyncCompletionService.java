@@ -0,0 +1,189 @@
+/*******************************************************************************
+ File        : AsyncCompletionService.java
+
+ Description : AsyncCompletionService answers completion requests with a
+               CompletableFuture, running the top words search on an executor
+               chosen by the caller. When a request arrives for the same
+               prefix and number of words as one that is still being worked
+               out, it waits on the same search instead of starting another
+               one, so a burst of users typing a popular prefix costs about
+               one search. The entry for a request is removed as soon as it
+               completes, so later requests see fresh results. The search
+               fills one CompletionResults, and each waiter is handed its own
+               copy of it, since writing results out reuses a buffer inside
+               them. Queries run against the current snapshot of a
+               ServingTrie.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AsyncCompletionService
+{
+    private final ServingTrie serving;
+    private final Executor executor;
+    private final CompletionScorer scorer;
+    private final ConcurrentHashMap<Request, CompletableFuture<CompletionResults>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong computations = new AtomicLong();
+
+    /**
+     * @param serving  - holder of the trie to query
+     * @param executor - executor the searches run on
+     * @param scorer   - scorer used to rank the words
+     */
+    public AsyncCompletionService(ServingTrie serving, Executor executor, CompletionScorer scorer)
+    {
+        this.serving = serving;
+        this.executor = executor;
+        this.scorer = scorer;
+    }
+
+    /**
+     * Requests the top k completions of a prefix. If the same request is
+     * already being worked out the caller waits on that search.
+     *
+     * @param prefix - prefix the words must start with
+     * @param k      - maximum number of words
+     * @return future completed with a copy of the results for this caller,
+     * worked out once for every identical request in flight
+     */
+    public CompletableFuture<CompletionResults> complete(String prefix, int k)
+    {
+        requests.incrementAndGet();
+        Request request = new Request(prefix, k);
+
+        CompletableFuture<CompletionResults> future = inFlight.get(request);
+        if (future != null)
+        {
+            return future.thenApply(CompletionResults::copy);
+        }
+
+        CompletableFuture<CompletionResults> created = new CompletableFuture<>();
+        future = inFlight.putIfAbsent(request, created);
+        if (future != null)
+        {
+            // another thread started the same request first
+            return future.thenApply(CompletionResults::copy);
+        }
+
+        computations.incrementAndGet();
+        try
+        {
+            executor.execute(() -> compute(request, created));
+        }
+        catch (RejectedExecutionException e)
+        {
+            inFlight.remove(request, created);
+            created.completeExceptionally(e);
+        }
+        return created.thenApply(CompletionResults::copy);
+    }
+
+    private void compute(Request request, CompletableFuture<CompletionResults> future)
+    {
+        try (ServingTrie.Snapshot snapshot = serving.acquire())
+        {
+            CompletionResults results = new CompletionResults(request.k);
+            snapshot.getTrie().getTopCompletions(request.prefix, request.k, scorer, results);
+
+            // removed before completing, so no new waiter joins a finished request
+            inFlight.remove(request, future);
+            future.complete(results);
+        }
+        catch (Throwable e)
+        {
+            // an Error must complete the future too, or every later request
+            // for the prefix would join it and wait forever
+            inFlight.remove(request, future);
+            future.completeExceptionally(e);
+            if (e instanceof Error)
+            {
+                throw (Error) e;
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests received
+     */
+    public long getRequestCount()
+    {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of searches run, lower than the number of requests
+     * when identical requests were joined together
+     */
+    public long getComputationCount()
+    {
+        return computations.get();
+    }
+
+    /**
+     * Key of a request in flight.
+     */
+    private static class Request
+    {
+        private final String prefix;
+        private final int k;
+
+        private Request(String prefix, int k)
+        {
+            this.prefix = prefix;
+            this.k = k;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Request))
+            {
+                return false;
+            }
+            Request other = (Request) o;
+            return k == other.k && prefix.equals(other.prefix);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(prefix, k);
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+        ServingTrie serving = new ServingTrie(trie);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AsyncCompletionService service = new AsyncCompletionService(serving, executor,
+                CompletionScorer.COUNT);
+
+        // a burst of users typing the same few prefixes
+        String[] prefixes = {"g", "go", "fro", "the"};
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[2000];
+        for (int i = 0; i < futures.length; i++)
+        {
+            futures[i] = service.complete(prefixes[i % prefixes.length], 3);
+        }
+        CompletableFuture.allOf(futures).get();
+
+        System.out.println(service.getRequestCount() + " requests, "
+                + service.getComputationCount() + " searches");
+        System.out.print(service.complete("go", 3).get());
+        executor.shutdown();
+        serving.close();
+    }
+}
@@ -15,93 +15,55 @@
  *******************************************************************************/
 package DSACW2;
 
-import javafx.util.Pair;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.PrintStream;
-import java.text.DecimalFormat;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 public class AutoCompletion
 {
-    //Decimal format to round the probabilities to 4 d.p
-    public static DecimalFormat decimalFormat = new DecimalFormat("#.####");
-
     /**
      * Method to get the top three suggested words from from an
      * AutoCompletionTrie that has the prefix given and their probability.
-     * The list returned is sorted with the highest probable word first,
+     * The results are sorted with the highest probable word first,
      * based on the AutoCompletionTrieNode count. If there are two equal
-     * probabilities then the word with the least characters is put first.
+     * probabilities then the word with the least characters is put first,
+     * and words of the same length are put in alphabetical order. Before the
+     * top K search was used, words of equal count and length came out in
+     * reverse alphabetical order, the order getAllWords left them in, so
+     * for example the query bea now gives beam, bear, beat where it gave
+     * beat, bear, beam. The results passed in are reused so no objects are
+     * made per word.
      *
-     * @param trie
-     * @param query
-     * @return A linkedlist of the top three words and their probabilities
+     * @param trie    sub trie of the words starting with the query
+     * @param query   the prefix that was searched for
+     * @param results results to fill with the top three words
      */
-    public static List<Pair<String, Double>> getTopThreeWordsAndProbabilities
-    (AutoCompletionTrie trie, String query)
+    public static void getTopThreeWordsAndProbabilities
+    (AutoCompletionTrie trie, String query, CompletionResults results)
     {
-        //Linked list used due to being more efficient when adding elements
-        // than an array list
-        List<Pair<String, Double>> counts = new LinkedList<>();
-        double allWordCounts = 0;
-
-
-        for (String word : trie.getAllWords())
-        {
-            allWordCounts += trie.returnCount(word);
-        }
-
-        //for each word in the trie, add it to the list with its frequency
-        // divided by the total of words in the AutoCompletionTrie to get the
-        // probability.
-        for (String word : trie.getAllWords())
-        {
-            counts.add(new Pair<>(query + word,
-                    trie.returnCount(word) / allWordCounts));
-        }
-
-        //Sort the count list based on highest probability, and if the same
-        // the shortest word is added
-        counts.sort((o1, o2) ->
-        {
-            if (o1.getValue().equals(o2.getValue()))
-            {
-                return o1.getKey().length() - o2.getKey().length();
-            }
-            if (o2.getValue() > o1.getValue())
-            {
-                return 1;
-            }
-            return -1;
-        });
-
-
-        List<Pair<String, Double>> listToReturn = new LinkedList<>();
-        //Only add the top three words to list to return
-        for (Pair<String, Double> pair : counts)
-        {
-            if (listToReturn.size() < 3)
-            {
-                listToReturn.add(pair);
-            }
-        }
-        return listToReturn;
-
+        //Only the top three words are searched for, shortest and then
+        // alphabetically first when two words have the same count, without
+        // sorting every word in the trie
+        AutoCompletionTrie.getTopCompletions(trie.getTrieNode(), query, 3,
+                CompletionScorer.COUNT, results);
     }
 
     /**
-     * Method to print the top three probabilities list to the console in the
+     * Method to print the top three probabilities to the console in the
      * correct format with the probability rounded to 4 d.p
      *
-     * @param list list to be printed
+     * @param results results to be printed
      */
-    public static void printToConsoleFormatted(List<Pair<String, Double>> list)
+    public static void printToConsoleFormatted(CompletionResults results)
     {
-        for (Pair<String, Double> pair : list)
+        try
         {
-            System.out.println(pair.getKey() + " (probability " +
-                    AutoCompletion.decimalFormat.format(pair.getValue()) + ")");
+            results.writeConsoleLines(System.out);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
         }
     }
 
@@ -109,77 +71,79 @@ public class AutoCompletion
      * Method to output top three probabilities to file in the desired format.
      * The prefix is outputted, the suggested word and then its probability
      *
-     * @param list  list of top three probabilities to output to file
-     * @param query the prefix that was search for in the AutoCompletionTrie
-     * @throws FileNotFoundException
+     * @param results top three probabilities to output to file, holding the
+     *                prefix that was search for in the AutoCompletionTrie
+     * @param fileName file to append the line to
+     * @throws IOException
      */
-    public static void outputToFile(List<Pair<String, Double>> list,
-                                    String query, String fileName) throws FileNotFoundException
+    public static void outputToFile(CompletionResults results, String fileName)
+            throws IOException
     {
-
-        PrintStream stream = new PrintStream(new FileOutputStream(
-                fileName, true));
-
-        int i = 0;
-        if (!list.isEmpty())
-        {
-            stream.append(query).append(",");
-        }
-
-        for (Pair<String, Double> word : list)
+        try (OutputStream stream = new FileOutputStream(fileName, true))
         {
-            //exit if three words have been processed
-            if (i == 3)
-            {
-                break;
-            }
-            stream.append(word.getKey()).append(",");
-            stream.append(AutoCompletion.decimalFormat.format(word.getValue()));
-            //append a comma for all but the last word in the list
-            if (i != 2)
-            {
-                if (i + 1 < list.size())
-                {
-                    stream.append(",");
-                }
-            }
-            i++;
-            stream.flush();
+            results.writeCsvLine(stream);
         }
-        stream.println();
-        stream.close();
     }
 
     /**
      * Method reads in the lotrQueries.csv, separated them into an array
      * listing using the DictionaryFinder method.
-     * @throws FileNotFoundException
+     * @throws IOException
      */
-    public static void getLotrProbabilities() throws FileNotFoundException
+    public static void getLotrProbabilities() throws IOException
     {
         AutoCompletionTrie autoComplete = new AutoCompletionTrie();
-        //Get all prefixes
-        ArrayList<String> lotrQueries = DictionaryFinder.loadPrefixes("lotrQueries.csv");
         //Get all words
         ArrayList<String> in = DictionaryFinder.readWordsFromCSV("lotr.csv");
         //Create Trie with words
         autoComplete.populateTrie(in);
 
-        for (String query : lotrQueries)
-        {
-            AutoCompletionTrie subTrie = autoComplete.getSubTrie(query);
+        getLotrProbabilities(autoComplete);
+    }
 
-            if (subTrie != null)
+    /**
+     * Method reads in the lotrQueries.csv and outputs the top three words for
+     * each query from an AutoCompletionTrie that has already been built, for
+     * example one loaded from a binary dictionary.
+     *
+     * @param autoComplete AutoCompletionTrie holding the lotr words
+     * @throws IOException
+     */
+    public static void getLotrProbabilities(AutoCompletionTrie autoComplete)
+            throws IOException
+    {
+        //Get all prefixes
+        ArrayList<String> lotrQueries = DictionaryFinder.loadPrefixes("lotrQueries.csv");
+        //Reused for every query
+        CompletionResults results = new CompletionResults(3);
+
+        try (OutputStream stream = new FileOutputStream("lotrMatches.csv", true))
+        {
+            for (String query : lotrQueries)
             {
-                List<Pair<String, Double>> list = getTopThreeWordsAndProbabilities(subTrie, query);
-                printToConsoleFormatted(list);
-                outputToFile( list, query,"lotrMatches.csv");
+                if (autoComplete.getTopCompletions(query, 3,
+                        CompletionScorer.COUNT, results))
+                {
+                    printToConsoleFormatted(results);
+                    results.writeCsvLine(stream);
+                }
             }
         }
     }
 
-    public static void main(String[] args) throws FileNotFoundException
+    /**
+     * Runs the lotr queries. If the name of a binary dictionary is passed in
+     * the words are loaded from it instead of reading lotr.csv.
+     */
+    public static void main(String[] args) throws IOException
     {
-        getLotrProbabilities();
+        if (args.length > 0)
+        {
+            getLotrProbabilities(AutoCompletionTrie.loadBinaryDictionary(args[0]));
+        }
+        else
+        {
+            getLotrProbabilities();
+        }
     }
 }
@@ -5,11 +5,14 @@
                variables and methods that are used in autoCompletion. The class
                introduces the new variable TrieWordCount, which is used to
                store the number of words in a Trie. The class also implements
-               populateTrie that adds words from a list to the trie. A method
+               populateTrie that adds words from a list to the trie, through
+               addAll, which like countAll works through a sorted batch and
+               carries on from the prefix shared with the word before. A method
                returnCount returns the number of times a string occurs in a
                trie. getSubTrie has also been adapted to set the trie word
-               count and set the root to null. Finally a toString method has
-               been added to print all the words in the trie.
+               count, sharing the nodes without changing them. Finally a
+               toString method has been added to print all the words in the
+               trie.
 
  Author      : Dovydas Novikovas
 
@@ -17,17 +20,31 @@
  *******************************************************************************/
 package DSACW2;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class AutoCompletionTrie
 {
+    // estimated bytes retained by one node and its offspring array, with
+    // compressed references: a 40 byte node and a 120 byte array of 26
+    static final int NODE_BYTES = 160;
+
     // store count of each word to calculate probability
     private int TrieWordCount = 0;
     private AutoCompletionTrieNode root;
+    // number of nodes, worked out when first asked for if -1
+    private int nodeCount;
+    // optional filter turning away prefixes that are not here
+    private BloomFilter filter;
+    // optional listener told of every word whose count or total changes
+    private Consumer<String> changeListener;
 
     public AutoCompletionTrie()
     {
         root = new AutoCompletionTrieNode();
+        nodeCount = 1;
     }
 
     /**
@@ -41,6 +58,161 @@ public class AutoCompletionTrie
     public AutoCompletionTrie(AutoCompletionTrieNode node)
     {
         this.root = node;
+        this.nodeCount = -1;
+    }
+
+    /**
+     * @param node          - root of the trie
+     * @param trieWordCount - total count of the words below the root
+     */
+    AutoCompletionTrie(AutoCompletionTrieNode node, int trieWordCount)
+    {
+        this(node);
+        this.TrieWordCount = trieWordCount;
+    }
+
+    public AutoCompletionTrieNode getTrieNode()
+    {
+        return root;
+    }
+
+    /**
+     * @return the sum of the counts of every word in this AutoCompletionTrie
+     */
+    public long getTotalCount()
+    {
+        return root.getTotalCount();
+    }
+
+    /**
+     * @return the number of nodes in this AutoCompletionTrie, the root
+     * included
+     */
+    public int getNodeCount()
+    {
+        if (nodeCount < 0)
+        {
+            nodeCount = countNodes(root);
+        }
+        return nodeCount;
+    }
+
+    private static int countNodes(AutoCompletionTrieNode node)
+    {
+        int nodes = 1;
+        for (AutoCompletionTrieNode child : node.getOffspringArray())
+        {
+            if (child != null)
+            {
+                nodes += countNodes(child);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @return an estimate of the bytes retained by the nodes of this
+     * AutoCompletionTrie
+     */
+    public long getEstimatedSize()
+    {
+        return (long) getNodeCount() * NODE_BYTES;
+    }
+
+    /**
+     * Removes every word with a count below the floor, along with the nodes
+     * left with no words below them, and works out the highest count and
+     * the number of words below each node again. The total counts are left
+     * as they were, so the probabilities of the words kept do not change,
+     * and no word at or above the floor is moved or changed, so the top
+     * words of any prefix whose k-th word reaches the floor stay the same.
+     * A lookup filter still lets the words removed through until it is
+     * enabled again.
+     *
+     * @param floor - lowest count of a word to keep
+     * @return the number of words removed
+     */
+    public int evictBelow(int floor)
+    {
+        return evictBelow(floor, null);
+    }
+
+    /**
+     * Removes every word with a count below the floor, as evictBelow, and
+     * passes each word removed with its count to a listener.
+     *
+     * @param floor   - lowest count of a word to keep
+     * @param removed - told of each word removed and its count, may be null
+     * @return the number of words removed
+     */
+    int evictBelow(int floor, ObjIntConsumer<String> removed)
+    {
+        int before = root.getWordCount();
+        evict(root, floor, new char[32], 0, removed);
+        return before - root.getWordCount();
+    }
+
+    /**
+     * @return true if no word is left below the node, so it can be dropped
+     */
+    private boolean evict(AutoCompletionTrieNode node, int floor, char[] word, int depth,
+                          ObjIntConsumer<String> removed)
+    {
+        int maxCount = 0;
+        int words = 0;
+        if (node.getIsWord())
+        {
+            if (node.getCount() < floor)
+            {
+                if (removed != null)
+                {
+                    removed.accept(new String(word, 0, depth), node.getCount());
+                }
+                if (changeListener != null)
+                {
+                    changeListener.accept(new String(word, 0, depth));
+                }
+                node.setIsWord(false);
+                node.addCount(-node.getCount());
+            }
+            else
+            {
+                maxCount = node.getCount();
+                words = 1;
+            }
+        }
+
+        if (depth == word.length)
+        {
+            word = Arrays.copyOf(word, depth * 2);
+        }
+        AutoCompletionTrieNode[] offspring = node.getOffspringArray();
+        for (int i = 0; i < offspring.length; i++)
+        {
+            AutoCompletionTrieNode child = offspring[i];
+            if (child == null)
+            {
+                continue;
+            }
+            word[depth] = (char) ('a' + i);
+            if (evict(child, floor, word, depth + 1, removed))
+            {
+                // the children of the child have already been dropped
+                offspring[i] = null;
+                if (nodeCount > 0)
+                {
+                    nodeCount--;
+                }
+            }
+            else
+            {
+                maxCount = Math.max(maxCount, child.getMaxCount());
+                words += child.getWordCount();
+            }
+        }
+        node.setMaxCount(maxCount);
+        node.addToWordCount(words - node.getWordCount());
+        return words == 0;
     }
 
     /**
@@ -57,7 +229,49 @@ public class AutoCompletionTrie
      */
     public boolean add(String key) throws IllegalArgumentException
     {
+        return add(key, 1);
+    }
+
+    /**
+     * Adds a word to the AutoCompletionTrie as if it had been added the
+     * number of times passed in. The TrieWordCount goes up by the count.
+     *
+     * @param key   - string to add to the AutoCompletionTrie
+     * @param count - number of times to add the string, at least 1
+     * @return true if the string was not already a word; false otherwise
+     * @throws IllegalArgumentException
+     */
+    public boolean add(String key, int count) throws IllegalArgumentException
+    {
+        return add(key, count, count);
+    }
+
+    /**
+     * Adds a word with a count, adding a different amount to the totals of
+     * the nodes on its path, for when some of the count has already been
+     * added to the totals with addToTotals. addToTotals only reaches the
+     * nodes that existed, so the nodes made for the word here have the whole
+     * count added to their totals instead.
+     *
+     * @param key        - string to add to the AutoCompletionTrie
+     * @param count      - amount to add to the count of the word, at least 1
+     * @param totalDelta - amount to add to the totals of the nodes already
+     *                     on the path
+     * @return true if the string was not already a word; false otherwise
+     * @throws IllegalArgumentException
+     */
+    boolean add(String key, int count, long totalDelta) throws IllegalArgumentException
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("Count must be at least 1!");
+        }
         AutoCompletionTrieNode temp = root;
+        // nodes passed through, kept to update the subtree statistics
+        AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[key.length() + 1];
+        path[0] = temp;
+        // position on the path of the first node made for the word
+        int created = key.length() + 1;
 
         // loops through the string passed in on each char in the string
         for (int i = 0; i < key.length(); i++)
@@ -68,21 +282,144 @@ public class AutoCompletionTrie
             if (next == null)
             {
                 temp.setOffspring(key.charAt(i));
+                if (nodeCount >= 0)
+                {
+                    nodeCount++;
+                }
+                created = Math.min(created, i + 1);
             }
 
             temp = temp.getOffspring(key.charAt(i));
-            if (i == key.length() - 1 && temp.getIsWord())
-            {
-                TrieWordCount++;
-                temp.incrementCount();
-                return false;
-            }
+            path[i + 1] = temp;
         }
-        TrieWordCount++;
+        boolean isNewWord = !temp.getIsWord();
+        TrieWordCount += totalDelta;
         // will only set leaf to true to indicate a complete word
         temp.setIsWord(true);
-        temp.incrementCount();
-        return true;
+        temp.addCount(count);
+        updatePath(path, key.length(), temp.getCount(), totalDelta, isNewWord ? 1 : 0);
+        // the earlier sightings never reached the new nodes
+        for (int i = created; i <= key.length() && totalDelta < count; i++)
+        {
+            path[i].addToTotalCount(count - totalDelta);
+        }
+        if (isNewWord && filter != null)
+        {
+            filter.add(key);
+        }
+        if (changeListener != null)
+        {
+            changeListener.accept(key);
+        }
+        return isNewWord;
+    }
+
+    /**
+     * Sets a listener told of every word added, evicted or whose count goes
+     * up, so the results of only the prefixes of those words need to be
+     * worked out again. Only the prefixes of a word changed can have their
+     * top words or probabilities changed.
+     *
+     * @param listener - listener told of each word changed, null for none
+     */
+    public void setChangeListener(Consumer<String> listener)
+    {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Puts a BloomFilter of the words in the AutoCompletionTrie, and their
+     * prefixes up to the length passed in, in front of getSubTrie,
+     * getTopCompletions and countAll so that most keys that are not here are
+     * turned away without walking the trie. Keys with characters the trie
+     * can not hold are always turned away while the filter is on, before it
+     * is looked at, rather than throwing. Words added afterwards are added
+     * to the filter too. Calling this again builds the filter again, which
+     * is worth doing after words have been evicted.
+     *
+     * @param expectedWords     - number of words the trie is expected to hold
+     * @param prefixLength      - longest prefix the filter holds
+     * @param falsePositiveRate - chance a prefix not in the trie gets through
+     */
+    public void enableLookupFilter(long expectedWords, int prefixLength, double falsePositiveRate)
+    {
+        BloomFilter built = new BloomFilter(expectedWords, prefixLength, falsePositiveRate);
+        WordCursor cursor = new WordCursor(root, "");
+        while (cursor.next())
+        {
+            built.add(cursor.getWord());
+        }
+        filter = built;
+    }
+
+    /**
+     * Removes the filter put in front of getSubTrie, getTopCompletions and
+     * countAll.
+     */
+    public void disableLookupFilter()
+    {
+        filter = null;
+    }
+
+    /**
+     * @param prefix - prefix to check
+     * @return false if the filter is on and the prefix has a character the
+     * trie can not hold or the filter shows no word starts with it; true
+     * otherwise
+     */
+    private boolean mightHavePrefix(String prefix)
+    {
+        return filter == null || (Trie.isLetters(prefix) && filter.mightContainPrefix(prefix));
+    }
+
+    /**
+     * Adds to the totals of the nodes on the path of a word that is not
+     * being added, as far as the path exists, so the probabilities of the
+     * words kept still count every time the word was seen.
+     *
+     * @param key   - word that was seen
+     * @param delta - number of times it was seen
+     * @throws IllegalArgumentException
+     */
+    void addToTotals(String key, long delta) throws IllegalArgumentException
+    {
+        if (changeListener != null)
+        {
+            changeListener.accept(key);
+        }
+        AutoCompletionTrieNode temp = root;
+        TrieWordCount += delta;
+        temp.addToTotalCount(delta);
+        for (int i = 0; i < key.length(); i++)
+        {
+            temp = temp.getOffspring(key.charAt(i));
+            if (temp == null)
+            {
+                return;
+            }
+            temp.addToTotalCount(delta);
+        }
+    }
+
+    /**
+     * Updates the subtree statistics of every node on the path to a word
+     * whose count has just gone up.
+     *
+     * @param path   - nodes from the root down to the word
+     * @param length - length of the word, path[length] being its node
+     * @param count  - new count of the word
+     * @param delta  - amount the count of the word went up by
+     * @param words  - 1 if the word is new; 0 otherwise
+     */
+    private void updatePath(AutoCompletionTrieNode[] path, int length, int count,
+                            long delta, int words)
+    {
+        for (int i = 0; i <= length; i++)
+        {
+            path[i].addToTotalCount(delta);
+            path[i].updateMaxCount(count);
+            path[i].addToWordCount(words);
+        }
     }
 
     /**
@@ -92,10 +429,275 @@ public class AutoCompletionTrie
      */
     public void populateTrie(List<String> listOfWords)
     {
-        for (String word : listOfWords)
+        addAll(listOfWords);
+    }
+
+    /**
+     * Adds a batch of words, each once for every time it is in the batch,
+     * sorted first if they are not already in order. The copies of a word
+     * are counted and added together, and each word carries on from the
+     * node at the end of the prefix it shares with the word before it. The
+     * statistics of a node are only updated once the words below it are
+     * done, so shared prefixes are walked and updated once rather than once
+     * for every word.
+     *
+     * @param words - words to add
+     * @return the number of words that were not already in the trie
+     * @throws IllegalArgumentException
+     */
+    public int addAll(List<String> words) throws IllegalArgumentException
+    {
+        String[] keys;
+        int[] counts;
+        int size = 0;
+        if (Trie.isSorted(words))
         {
-            add(word);
+            // the copies of a word are next to each other
+            keys = new String[words.size()];
+            counts = new int[words.size()];
+            for (String word : words)
+            {
+                if (size > 0 && keys[size - 1].equals(word))
+                {
+                    counts[size - 1]++;
+                }
+                else
+                {
+                    keys[size] = word;
+                    counts[size++] = 1;
+                }
+            }
         }
+        else
+        {
+            // the copies are counted first so only the distinct words are sorted
+            Map<String, Integer> distinct = new HashMap<>();
+            for (String word : words)
+            {
+                distinct.merge(word, 1, Integer::sum);
+            }
+            keys = distinct.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            counts = new int[keys.length];
+            for (String key : keys)
+            {
+                counts[size++] = distinct.get(key);
+            }
+        }
+
+        AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[32];
+        // amounts still to be added to the statistics of each node on the path
+        long[] totals = new long[32];
+        int[] maxCounts = new int[32];
+        int[] newWords = new int[32];
+        path[0] = root;
+        int depth = 0;
+        String previous = "";
+        int added = 0;
+
+        try
+        {
+            for (int i = 0; i < size; i++)
+            {
+                String word = keys[i];
+                int count = counts[i];
+                if (path.length <= word.length())
+                {
+                    int length = Math.max(word.length() + 1, path.length * 2);
+                    path = Arrays.copyOf(path, length);
+                    totals = Arrays.copyOf(totals, length);
+                    maxCounts = Arrays.copyOf(maxCounts, length);
+                    newWords = Arrays.copyOf(newWords, length);
+                }
+
+                // the nodes below the shared prefix are done with
+                int shared = Trie.sharedLength(previous, word);
+                flush(path, totals, maxCounts, newWords, depth, shared);
+                for (depth = shared; depth < word.length(); depth++)
+                {
+                    AutoCompletionTrieNode next = path[depth].getOffspring(word.charAt(depth));
+                    if (next == null)
+                    {
+                        path[depth].setOffspring(word.charAt(depth));
+                        next = path[depth].getOffspring(word.charAt(depth));
+                        if (nodeCount >= 0)
+                        {
+                            nodeCount++;
+                        }
+                    }
+                    path[depth + 1] = next;
+                }
+                previous = word;
+
+                AutoCompletionTrieNode node = path[depth];
+                if (!node.getIsWord())
+                {
+                    node.setIsWord(true);
+                    newWords[depth]++;
+                    if (filter != null)
+                    {
+                        filter.add(word);
+                    }
+                    added++;
+                }
+                node.addCount(count);
+                TrieWordCount += count;
+                totals[depth] += count;
+                maxCounts[depth] = Math.max(maxCounts[depth], node.getCount());
+                if (changeListener != null)
+                {
+                    changeListener.accept(word);
+                }
+            }
+        }
+        finally
+        {
+            // also keeps the statistics right if a word was not valid
+            flush(path, totals, maxCounts, newWords, depth, -1);
+        }
+        return added;
+    }
+
+    /**
+     * Adds the amounts kept for the nodes on the path deeper than a depth to
+     * their statistics, carrying each on to the node above.
+     *
+     * @param depth - deepest node on the path
+     * @param keep  - depth of the nodes to leave, -1 to flush the root too
+     */
+    private static void flush(AutoCompletionTrieNode[] path, long[] totals, int[] maxCounts,
+                              int[] newWords, int depth, int keep)
+    {
+        for (int d = depth; d > keep; d--)
+        {
+            path[d].addToTotalCount(totals[d]);
+            path[d].updateMaxCount(maxCounts[d]);
+            path[d].addToWordCount(newWords[d]);
+            if (d > 0)
+            {
+                totals[d - 1] += totals[d];
+                maxCounts[d - 1] = Math.max(maxCounts[d - 1], maxCounts[d]);
+                newWords[d - 1] += newWords[d];
+            }
+            totals[d] = 0;
+            maxCounts[d] = 0;
+            newWords[d] = 0;
+        }
+    }
+
+    /**
+     * Counts a batch of words, sorted first if they are not already in
+     * order, each carrying on from the deepest node shared with the word
+     * before it.
+     *
+     * @param words - words to count
+     * @return array with the count of the word at each position, 0 for a
+     * word not in the trie
+     * @throws IllegalArgumentException
+     */
+    public int[] countAll(List<String> words) throws IllegalArgumentException
+    {
+        int[] counts = new int[words.size()];
+        AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[32];
+        path[0] = root;
+        // deepest node on the path reached by the word before
+        int depth = 0;
+        String previous = "";
+
+        for (int index : Trie.sortedOrder(words))
+        {
+            String word = words.get(index);
+            if (filter != null && !(Trie.isLetters(word) && filter.mightContainWord(word)))
+            {
+                continue;
+            }
+            if (path.length <= word.length())
+            {
+                path = Arrays.copyOf(path, Math.max(word.length() + 1, path.length * 2));
+            }
+
+            depth = Math.min(depth, Trie.sharedLength(previous, word));
+            while (depth < word.length())
+            {
+                AutoCompletionTrieNode next = path[depth].getOffspring(word.charAt(depth));
+                if (next == null)
+                {
+                    break;
+                }
+                path[++depth] = next;
+            }
+            previous = word;
+            if (depth == word.length() && path[depth].getIsWord())
+            {
+                counts[index] = path[depth].getCount();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Bulk builds an AutoCompletionTrie from a binary dictionary written by
+     * DictionaryFinder.saveToBinaryFile. The words are sorted and front
+     * coded, so each word carries on from the node at the end of the prefix
+     * it shares with the word before it rather than walking down from the
+     * root, and no text has to be split into words. Entries with a count of
+     * 0 hold no word, and entries with characters outside a-z can not be
+     * held by the trie, so no nodes are built for either, as in
+     * LazyAutoCompletionTrie.
+     *
+     * @param fileName - name of a binary dictionary file
+     * @return AutoCompletionTrie holding every word and count in the file
+     * @throws IOException
+     */
+    public static AutoCompletionTrie loadBinaryDictionary(String fileName) throws IOException
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[32];
+        path[0] = trie.root;
+        // deepest position on the path that is valid for the last word
+        int valid = 0;
+
+        try (BinaryDictionary.Reader reader = new BinaryDictionary.Reader(fileName))
+        {
+            while (reader.next())
+            {
+                char[] word = reader.getChars();
+                int length = reader.getLength();
+                int count = reader.getCount();
+                if (count == 0 || !Trie.isLetters(word, length))
+                {
+                    // no nodes for it, but the next word is coded against it
+                    valid = Math.min(valid, reader.getSharedLength());
+                    continue;
+                }
+                if (path.length <= length)
+                {
+                    path = Arrays.copyOf(path, Math.max(length + 1, path.length * 2));
+                }
+
+                // nodes up to the shared prefix are already on the path
+                for (int i = Math.min(reader.getSharedLength(), valid); i < length; i++)
+                {
+                    AutoCompletionTrieNode next = path[i].getOffspring(word[i]);
+                    if (next == null)
+                    {
+                        path[i].setOffspring(word[i]);
+                        next = path[i].getOffspring(word[i]);
+                        trie.nodeCount++;
+                    }
+                    path[i + 1] = next;
+                }
+                valid = length;
+
+                AutoCompletionTrieNode node = path[length];
+                int words = node.getIsWord() ? 0 : 1;
+                node.setIsWord(true);
+                node.addCount(count);
+                trie.TrieWordCount += count;
+                trie.updatePath(path, length, node.getCount(), count, words);
+            }
+        }
+        return trie;
     }
 
     /**
@@ -134,7 +736,7 @@ public class AutoCompletionTrie
      */
     public AutoCompletionTrie getSubTrie(String prefix)
     {
-        if (root == null)
+        if (root == null || !mightHavePrefix(prefix))
         {
             return null;
         }
@@ -158,10 +760,284 @@ public class AutoCompletionTrie
         }
         AutoCompletionTrie trie = new AutoCompletionTrie(temp);
         trie.TrieWordCount = wordCount;
-        trie.root.setPrefix('\0');
+        // the node is shared with this trie so is left as it is, the
+        // character of a root is skipped when the words are listed
         return trie;
     }
 
+    /**
+     * @return the number of different words in this AutoCompletionTrie
+     */
+    public int getDistinctWordCount()
+    {
+        return root.getWordCount();
+    }
+
+    /**
+     * Counts the words in the AutoCompletionTrie that come before the word
+     * passed in alphabetically, using the word counts kept in each node
+     * rather than visiting the words.
+     *
+     * @param word - word to rank, which does not have to be in the trie
+     * @return the number of words alphabetically before the word
+     */
+    public int rank(String word)
+    {
+        int rank = 0;
+        AutoCompletionTrieNode temp = this.root;
+
+        for (char c : word.toCharArray())
+        {
+            // a prefix of the word comes before it
+            if (temp.getIsWord())
+            {
+                rank++;
+            }
+            AutoCompletionTrieNode[] offspring = temp.getOffspringArray();
+            int index = c - 'a';
+            for (int i = 0; i < index && i < offspring.length; i++)
+            {
+                if (offspring[i] != null)
+                {
+                    rank += offspring[i].getWordCount();
+                }
+            }
+
+            temp = temp.getOffspring(c);
+            if (temp == null)
+            {
+                return rank;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the word at a position in alphabetical order.
+     *
+     * @param index - position of the word, starting from 0
+     * @return the word at the position
+     * @throws IndexOutOfBoundsException
+     */
+    public String select(int index) throws IndexOutOfBoundsException
+    {
+        WordCursor cursor = getWordCursor("", index);
+        if (index < 0 || !cursor.next())
+        {
+            throw new IndexOutOfBoundsException("No word at position " + index + "!");
+        }
+        return cursor.getWord();
+    }
+
+    /**
+     * Creates a cursor over the words starting with the prefix in
+     * alphabetical order, positioned before the word at the offset passed in
+     * within the prefix.
+     *
+     * @param prefix - prefix the words must start with
+     * @param offset - number of words with the prefix to skip
+     * @return WordCursor whose next call to next returns the word at the offset
+     */
+    public WordCursor getWordCursor(String prefix, int offset)
+    {
+        AutoCompletionTrieNode node = findNode(prefix);
+        WordCursor cursor = new WordCursor(node, prefix);
+        cursor.skip(offset);
+        return cursor;
+    }
+
+    /**
+     * Creates a cursor over the words starting with the prefix in
+     * alphabetical order, positioned after the word passed in, so the next
+     * page of results carries on from the last word of the page before.
+     *
+     * @param prefix - prefix the words must start with
+     * @param word   - word to carry on after, which does not have to be in
+     *                 the trie
+     * @return WordCursor whose next call to next returns the first word
+     * after the word passed in
+     */
+    public WordCursor getWordCursorAfter(String prefix, String word)
+    {
+        AutoCompletionTrieNode node = findNode(prefix);
+        WordCursor cursor = new WordCursor(node, prefix);
+        cursor.seek(word, false);
+        return cursor;
+    }
+
+    /**
+     * Returns one page of the words starting with the prefix in alphabetical
+     * order.
+     *
+     * @param prefix - prefix the words must start with
+     * @param offset - number of words with the prefix to skip
+     * @param limit  - largest number of words to return
+     * @return List, the words of the page
+     */
+    public List<String> getWords(String prefix, int offset, int limit)
+    {
+        List<String> words = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        WordCursor cursor = getWordCursor(prefix, offset);
+        while (words.size() < limit && cursor.next())
+        {
+            words.add(cursor.getWord());
+        }
+        return words;
+    }
+
+    /**
+     * @param prefix - characters to follow from the root
+     * @return the node reached by the prefix, or null if there is none
+     */
+    AutoCompletionTrieNode findNode(String prefix)
+    {
+        AutoCompletionTrieNode temp = this.root;
+
+        for (int i = 0; i < prefix.length() && temp != null; i++)
+        {
+            temp = temp.getOffspring(prefix.charAt(i));
+        }
+        return temp;
+    }
+
+    /**
+     * Finds the best scoring words in the AutoCompletionTrie without
+     * visiting every word, using TopKSearch. The words returned are relative
+     * to the root, in the same way as getAllWords.
+     *
+     * @param k      - maximum number of words to return
+     * @param scorer - scorer used to rank the words
+     * @return List, the best k words with the highest score first
+     */
+    public List<String> getTopWords(int k, CompletionScorer scorer)
+    {
+        return getTopWords(root, "", k, scorer);
+    }
+
+    /**
+     * Finds the best scoring words starting with the prefix passed in, using
+     * TopKSearch. The trie is not changed or copied.
+     *
+     * @param prefix - prefix the words must start with
+     * @param k      - maximum number of words to return
+     * @param scorer - scorer used to rank the words
+     * @return List, the best k words including the prefix with the highest
+     * score first; empty if no word starts with the prefix
+     */
+    public List<String> getTopWords(String prefix, int k, CompletionScorer scorer)
+    {
+        AutoCompletionTrieNode temp = this.root;
+
+        for (char c : prefix.toCharArray())
+        {
+            temp = temp.getOffspring(c);
+
+            if (temp == null)
+            {
+                return new LinkedList<>();
+            }
+        }
+        return getTopWords(temp, prefix, k, scorer);
+    }
+
+    private List<String> getTopWords(AutoCompletionTrieNode node, String prefix,
+                                     int k, CompletionScorer scorer)
+    {
+        List<String> words = new LinkedList<>();
+        TopKSearch search = new TopKSearch(node, prefix.length(), k, scorer);
+
+        while (search.next())
+        {
+            words.add(prefix + search.getWord());
+        }
+        return words;
+    }
+
+    /**
+     * Fills the results passed in with the best scoring words starting with
+     * the prefix and their probabilities, out of the total count of every
+     * word starting with the prefix. The trie is not changed or copied.
+     *
+     * @param prefix  - prefix the words must start with
+     * @param k       - maximum number of words
+     * @param scorer  - scorer used to rank the words
+     * @param results - results to fill, emptied first
+     * @return true if any word starts with the prefix; false otherwise
+     */
+    public boolean getTopCompletions(String prefix, int k, CompletionScorer scorer,
+                                     CompletionResults results)
+    {
+        return getTopCompletions(prefix, k, scorer, results, false, 0);
+    }
+
+    /**
+     * Fills the results passed in with the best words found starting with
+     * the prefix before a deadline. The most promising branches are searched
+     * first, so when time runs out the results hold the best words found so
+     * far and are marked as partial.
+     *
+     * @param prefix   - prefix the words must start with
+     * @param k        - maximum number of words
+     * @param scorer   - scorer used to rank the words
+     * @param results  - results to fill, emptied first
+     * @param deadline - value of System.nanoTime to stop searching at
+     * @return true if any word starts with the prefix; false otherwise
+     */
+    public boolean getTopCompletions(String prefix, int k, CompletionScorer scorer,
+                                     CompletionResults results, long deadline)
+    {
+        return getTopCompletions(prefix, k, scorer, results, true, deadline);
+    }
+
+    private boolean getTopCompletions(String prefix, int k, CompletionScorer scorer,
+                                      CompletionResults results, boolean timed, long deadline)
+    {
+        AutoCompletionTrieNode temp = mightHavePrefix(prefix) ? findNode(prefix) : null;
+        if (temp == null)
+        {
+            results.clear(prefix, 0);
+            return false;
+        }
+        fillTopCompletions(temp, prefix, k, scorer, results, timed, deadline);
+        return true;
+    }
+
+    /**
+     * Fills the results passed in with the best scoring words below a node.
+     *
+     * @param node    - node reached by the prefix
+     * @param prefix  - characters leading to the node
+     * @param k       - maximum number of words
+     * @param scorer  - scorer used to rank the words
+     * @param results - results to fill, emptied first
+     */
+    static void getTopCompletions(AutoCompletionTrieNode node, String prefix, int k,
+                                  CompletionScorer scorer, CompletionResults results)
+    {
+        fillTopCompletions(node, prefix, k, scorer, results, false, 0);
+    }
+
+    /**
+     * Fills the results with the best scoring words below a node, stopping
+     * at the deadline if the search is timed.
+     *
+     * @param timed    - true to stop expanding branches at the deadline
+     * @param deadline - value of System.nanoTime to stop searching at
+     */
+    private static void fillTopCompletions(AutoCompletionTrieNode node, String prefix, int k,
+                                           CompletionScorer scorer, CompletionResults results,
+                                           boolean timed, long deadline)
+    {
+        results.clear(prefix, node.getTotalCount());
+        TopKSearch search = new TopKSearch(node, prefix.length(), k, scorer);
+
+        while (timed ? search.next(deadline) : search.next())
+        {
+            results.add(search);
+        }
+        results.setPartial(search.isPartial());
+    }
+
     /**
      * Generates a string that is made up of all the words in the Trie. Each
      * word is separated by a comma delimiter. The private method
@@ -172,7 +1048,22 @@ public class AutoCompletionTrie
      */
     public List<String> getAllWords()
     {
-        return getAllWords(root, "");
+        List<String> allWords = new LinkedList<>();
+        AutoCompletionTrieNode[] offspring = root.getOffspringArray();
+
+        // the same order as the recursion, the last child popped first
+        for (int i = offspring.length - 1; i >= 0; i--)
+        {
+            if (offspring[i] != null)
+            {
+                allWords.addAll(getAllWords(offspring[i], ""));
+            }
+        }
+        if (root.getIsWord())
+        {
+            allWords.add("");
+        }
+        return allWords;
     }
 
     /**
@@ -234,5 +1125,51 @@ public class AutoCompletionTrie
         autoComplete.populateTrie(in);
         System.out.println("All words in autoComplete: " + autoComplete.getAllWords());
         System.out.println(autoComplete.getAllWords());
+
+        // testing the top words search with both scorers
+        System.out.println("Top three words: " +
+                autoComplete.getTopWords(3, CompletionScorer.COUNT));
+        System.out.println("Top three 'g' words with a length penalty: " +
+                autoComplete.getTopWords("g", 3, CompletionScorer.lengthPenalty(0.2)));
+
+        // testing paging through the words under a prefix
+        List<String> page = autoComplete.getWords("a", 10, 10);
+        System.out.println("Words 10-20 under 'a': " + page);
+        WordCursor next = autoComplete.getWordCursorAfter("a", page.get(page.size() - 1));
+        System.out.println("Next word: " + (next.next() ? next.getWord() : "none"));
+        System.out.println("Rank of 'frodo': " + autoComplete.rank("frodo") + " = "
+                + autoComplete.select(autoComplete.rank("frodo")));
+
+        // a deadline that has already passed gives back what was found first
+        CompletionResults results = new CompletionResults(50);
+        autoComplete.getTopCompletions("", 50, CompletionScorer.COUNT, results, System.nanoTime());
+        System.out.println("Out of time: " + results.size() + " words, partial "
+                + results.isPartial());
+        autoComplete.getTopCompletions("", 50, CompletionScorer.COUNT, results,
+                System.nanoTime() + 200_000);
+        System.out.println("Within 200us: " + results.size() + " words, partial "
+                + results.isPartial());
+
+        // adding and counting in bulk against one word at a time
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+        {
+            many.addAll(in);
+        }
+        long start = System.nanoTime();
+        AutoCompletionTrie looped = new AutoCompletionTrie();
+        for (String word : many)
+        {
+            looped.add(word);
+        }
+        long loopTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        AutoCompletionTrie bulk = new AutoCompletionTrie();
+        bulk.addAll(many);
+        long bulkTime = System.nanoTime() - start;
+        System.out.println("add in a loop " + loopTime / 1000 + "us, addAll "
+                + bulkTime / 1000 + "us, same words " + looped.toString().equals(bulk.toString()));
+        int[] counts = bulk.countAll(testQueries);
+        System.out.println("Counts of the queries: " + Arrays.toString(counts));
     }
 }
\ No newline at end of file
@@ -18,6 +18,12 @@ public class AutoCompletionTrieNode
     private boolean isWord;
     private AutoCompletionTrieNode[] offspring = new AutoCompletionTrieNode[26];
     private int count = 0;
+    // highest count of any word in the subtree rooted at this node
+    private int maxCount = 0;
+    // sum of the counts of every word in the subtree rooted at this node
+    private long totalCount = 0;
+    // number of different words in the subtree rooted at this node
+    private int wordCount = 0;
 
     public AutoCompletionTrieNode()
     {
@@ -72,6 +78,85 @@ public class AutoCompletionTrieNode
         count++;
     }
 
+    /**
+     * Adds to the count for this word
+     *
+     * @param delta - amount to add to the count
+     */
+    public void addCount(int delta)
+    {
+        count += delta;
+    }
+
+    /**
+     * @return the highest count of any word in the subtree of this node,
+     * used as an upper bound when searching for the top words
+     */
+    public int getMaxCount()
+    {
+        return maxCount;
+    }
+
+    /**
+     * Raises the subtree maximum count if the count passed in is higher
+     *
+     * @param c - count of a word in the subtree of this node
+     */
+    public void updateMaxCount(int c)
+    {
+        if (c > maxCount)
+        {
+            maxCount = c;
+        }
+    }
+
+    /**
+     * Sets the subtree maximum count, used when words have been removed
+     *
+     * @param c - highest count of any word left in the subtree of this node
+     */
+    public void setMaxCount(int c)
+    {
+        maxCount = c;
+    }
+
+    /**
+     * @return the sum of the counts of every word in the subtree of this node
+     */
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    /**
+     * Adds to the sum of the counts of every word in the subtree of this node
+     *
+     * @param delta - amount to add to the total count
+     */
+    public void addToTotalCount(long delta)
+    {
+        totalCount += delta;
+    }
+
+    /**
+     * @return the number of different words in the subtree of this node,
+     * used to rank and select words in alphabetical order
+     */
+    public int getWordCount()
+    {
+        return wordCount;
+    }
+
+    /**
+     * Adds to the number of different words in the subtree of this node
+     *
+     * @param delta - number of words added, negative for words removed
+     */
+    public void addToWordCount(int delta)
+    {
+        wordCount += delta;
+    }
+
     /**
      * Prints all the the information a TrieNode can store. (primarily used
      * for debugging)
@@ -0,0 +1,520 @@
+/*******************************************************************************
+ File        : BinaryDictionary.java
+
+ Description : BinaryDictionary is a compact binary form of the word,count
+               pairs written to Dictionary.csv. The words are stored in sorted
+               order and front coded, so each word only stores the characters
+               after the prefix it shares with the word before it. Lengths,
+               counts and the characters themselves are written as variable
+               length integers, seven bits per byte, so an ascii character
+               takes one byte and any other character two or three. The file
+               starts with a magic number and a version byte and is read back
+               one entry at a time by the Reader, so a file of any size can be
+               streamed with a fixed amount of memory. A Cursor reads a file
+               held in a buffer, such as a memory mapped file, and can start
+               at any entry given the word before it.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+public class BinaryDictionary
+{
+    // "DSAD" in ascii, written at the start of every binary dictionary
+    public static final int MAGIC = 0x44534144;
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryDictionary()
+    {
+
+    }
+
+    /**
+     * Closes a stream opened for a Writer or Reader that could not be
+     * created, keeping the exception that stopped it.
+     *
+     * @param stream - stream to close
+     * @param cause  - exception the constructor is about to throw
+     */
+    private static void closeQuietly(Closeable stream, Exception cause)
+    {
+        try
+        {
+            stream.close();
+        }
+        catch (IOException e)
+        {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * @param value - character read as a variable length integer
+     * @return the character
+     * @throws IOException if the value is too large for a character
+     */
+    private static char toChar(int value) throws IOException
+    {
+        if (value > Character.MAX_VALUE)
+        {
+            throw new IOException("Corrupt binary dictionary!");
+        }
+        return (char) value;
+    }
+
+    /**
+     * Writes word,count pairs to a binary dictionary. The words must be
+     * passed in strictly increasing order.
+     */
+    public static class Writer implements Closeable
+    {
+        private final OutputStream out;
+        private char[] previous = new char[32];
+        private int previousLength = 0;
+        private boolean isFirst = true;
+        private long entries = 0;
+
+        public Writer(String fileName) throws IOException
+        {
+            this(new FileOutputStream(fileName), true);
+        }
+
+        public Writer(OutputStream out) throws IOException
+        {
+            this(out, false);
+        }
+
+        /**
+         * @param out            - stream to write the dictionary to
+         * @param closeOnFailure - true to close the stream if the header can
+         *                         not be written, for a stream opened here
+         * @throws IOException
+         */
+        private Writer(OutputStream out, boolean closeOnFailure) throws IOException
+        {
+            this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+            try
+            {
+                this.out.write(MAGIC >>> 24);
+                this.out.write(MAGIC >>> 16);
+                this.out.write(MAGIC >>> 8);
+                this.out.write(MAGIC);
+                this.out.write(VERSION);
+            }
+            catch (IOException | RuntimeException e)
+            {
+                if (closeOnFailure)
+                {
+                    closeQuietly(out, e);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Writes a word and its count after the previous word.
+         *
+         * @param word  - word greater than the previous word written
+         * @param count - number of times the word occurs
+         * @throws IOException
+         * @throws IllegalArgumentException
+         */
+        public void write(String word, int count) throws IOException
+        {
+            if (count < 0)
+            {
+                throw new IllegalArgumentException("Count must not be negative!");
+            }
+
+            int shared = 0;
+            int limit = Math.min(previousLength, word.length());
+            while (shared < limit && previous[shared] == word.charAt(shared))
+            {
+                shared++;
+            }
+
+            // the words must be unique and in order for the front coding
+            if (!isFirst && (shared == word.length() || (shared < previousLength
+                    && previous[shared] > word.charAt(shared))))
+            {
+                throw new IllegalArgumentException("[" + word + "] is not in sorted order!");
+            }
+
+            writeVarInt(shared);
+            writeVarInt(word.length() - shared);
+            for (int i = shared; i < word.length(); i++)
+            {
+                writeVarInt(word.charAt(i));
+            }
+            writeVarInt(count);
+
+            if (previous.length < word.length())
+            {
+                char[] larger = new char[Math.max(word.length(), previous.length * 2)];
+                System.arraycopy(previous, 0, larger, 0, shared);
+                previous = larger;
+            }
+            word.getChars(shared, word.length(), previous, shared);
+            previousLength = word.length();
+            isFirst = false;
+            entries++;
+        }
+
+        /**
+         * @return the number of entries written so far
+         */
+        public long getEntries()
+        {
+            return entries;
+        }
+
+        private void writeVarInt(int value) throws IOException
+        {
+            while ((value & ~0x7F) != 0)
+            {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the entries of a binary dictionary in order. The characters of
+     * the current word are kept in a buffer that is reused for every entry.
+     */
+    public static class Reader implements Closeable
+    {
+        private final InputStream in;
+        // read buffer filled directly, avoiding a synchronized call per byte
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position = 0;
+        private int limit = 0;
+        private char[] word = new char[32];
+        private int length = 0;
+        private int shared = 0;
+        private int count = 0;
+
+        public Reader(String fileName) throws IOException
+        {
+            this(new FileInputStream(fileName), true);
+        }
+
+        public Reader(InputStream in) throws IOException
+        {
+            this(in, false);
+        }
+
+        /**
+         * @param in             - stream to read the dictionary from
+         * @param closeOnFailure - true to close the stream if the header can
+         *                         not be read, for a stream opened here
+         * @throws IOException
+         */
+        private Reader(InputStream in, boolean closeOnFailure) throws IOException
+        {
+            this.in = in;
+            try
+            {
+                int magic = 0;
+                for (int i = 0; i < 4; i++)
+                {
+                    magic = (magic << 8) | readByte();
+                }
+                if (magic != MAGIC || readByte() != VERSION)
+                {
+                    throw new IOException("Not a binary dictionary!");
+                }
+            }
+            catch (IOException | RuntimeException e)
+            {
+                if (closeOnFailure)
+                {
+                    closeQuietly(in, e);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Reads the next entry.
+         *
+         * @return true if an entry was read; false at the end of the file
+         * @throws IOException
+         */
+        public boolean next() throws IOException
+        {
+            int first = read();
+            if (first == -1)
+            {
+                return false;
+            }
+            shared = readVarInt(first);
+            int suffix = readVarInt(readByte());
+            if (shared > length)
+            {
+                throw new IOException("Corrupt binary dictionary!");
+            }
+
+            length = shared + suffix;
+            if (word.length < length)
+            {
+                char[] larger = new char[Math.max(length, word.length * 2)];
+                System.arraycopy(word, 0, larger, 0, shared);
+                word = larger;
+            }
+            for (int i = shared; i < length; i++)
+            {
+                word[i] = toChar(readVarInt(readByte()));
+            }
+            count = readVarInt(readByte());
+            return true;
+        }
+
+        /**
+         * @return buffer holding the current word, only valid up to getLength
+         */
+        public char[] getChars()
+        {
+            return word;
+        }
+
+        /**
+         * @return the number of characters in the current word
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+        /**
+         * @return the number of characters the current word shares with the
+         * word before it
+         */
+        public int getSharedLength()
+        {
+            return shared;
+        }
+
+        /**
+         * @return the current word as a new string
+         */
+        public String getWord()
+        {
+            return new String(word, 0, length);
+        }
+
+        /**
+         * @return the count of the current word
+         */
+        public int getCount()
+        {
+            return count;
+        }
+
+        private int read() throws IOException
+        {
+            if (position == limit)
+            {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0)
+                {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private int readByte() throws IOException
+        {
+            int b = read();
+            if (b == -1)
+            {
+                throw new EOFException("Binary dictionary ends part way through an entry!");
+            }
+            return b;
+        }
+
+        private int readVarInt(int b) throws IOException
+        {
+            int value = b & 0x7F;
+            for (int shift = 7; (b & 0x80) != 0; shift += 7)
+            {
+                if (shift > 28)
+                {
+                    throw new IOException("Corrupt binary dictionary!");
+                }
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+            }
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the entries of a binary dictionary held in a buffer. The offset
+     * of each entry is known, so reading can carry on later from any entry
+     * given the characters it shares with the word before it.
+     */
+    public static class Cursor
+    {
+        private final ByteBuffer buffer;
+        private char[] word = new char[32];
+        private int length = 0;
+        private int shared = 0;
+        private int count = 0;
+        private int offset = 0;
+
+        /**
+         * @param buffer - buffer holding the whole file, read from its start
+         * @throws IOException
+         */
+        public Cursor(ByteBuffer buffer) throws IOException
+        {
+            if (buffer.limit() < 5 || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION)
+            {
+                throw new IOException("Not a binary dictionary!");
+            }
+            this.buffer = buffer;
+            buffer.position(5);
+        }
+
+        /**
+         * @param buffer - buffer holding the whole file
+         * @param offset - offset of the entry to read next
+         * @param before - characters the entry shares with the word before it
+         */
+        public Cursor(ByteBuffer buffer, int offset, String before)
+        {
+            this.buffer = buffer;
+            buffer.position(offset);
+            length = before.length();
+            if (word.length < length)
+            {
+                word = new char[length * 2];
+            }
+            before.getChars(0, length, word, 0);
+        }
+
+        /**
+         * Reads the next entry.
+         *
+         * @return true if an entry was read; false at the end of the buffer
+         * @throws IOException
+         */
+        public boolean next() throws IOException
+        {
+            if (!buffer.hasRemaining())
+            {
+                return false;
+            }
+            offset = buffer.position();
+            try
+            {
+                shared = readVarInt();
+                int suffix = readVarInt();
+                if (shared > length)
+                {
+                    throw new IOException("Corrupt binary dictionary!");
+                }
+
+                length = shared + suffix;
+                if (word.length < length)
+                {
+                    char[] larger = new char[Math.max(length, word.length * 2)];
+                    System.arraycopy(word, 0, larger, 0, shared);
+                    word = larger;
+                }
+                for (int i = shared; i < length; i++)
+                {
+                    word[i] = toChar(readVarInt());
+                }
+                count = readVarInt();
+            }
+            catch (BufferUnderflowException e)
+            {
+                throw new EOFException("Binary dictionary ends part way through an entry!");
+            }
+            return true;
+        }
+
+        /**
+         * @return the offset of the current entry in the buffer
+         */
+        public int getOffset()
+        {
+            return offset;
+        }
+
+        /**
+         * @return buffer holding the current word, only valid up to getLength
+         */
+        public char[] getChars()
+        {
+            return word;
+        }
+
+        /**
+         * @return the number of characters in the current word
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+        /**
+         * @return the number of characters the current word shares with the
+         * word before it
+         */
+        public int getSharedLength()
+        {
+            return shared;
+        }
+
+        /**
+         * @return the count of the current word
+         */
+        public int getCount()
+        {
+            return count;
+        }
+
+        private int readVarInt() throws IOException
+        {
+            int b = buffer.get();
+            int value = b & 0x7F;
+            for (int shift = 7; (b & 0x80) != 0; shift += 7)
+            {
+                if (shift > 28)
+                {
+                    throw new IOException("Corrupt binary dictionary!");
+                }
+                b = buffer.get();
+                value |= (b & 0x7F) << shift;
+            }
+            return value;
+        }
+    }
+}
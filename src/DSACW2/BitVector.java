@@ -0,0 +1,204 @@
+/*******************************************************************************
+ File        : BitVector.java
+
+ Description : BitVector is a fixed sequence of bits packed into longs with a
+               small directory of counts, so the number of ones before any
+               position (rank) and the position of the k-th one or zero
+               (select) can be found quickly. The directory holds the number
+               of ones before every block of 512 bits, which adds about 6%
+               to the size of the bits. Bits are appended while building and
+               finish must be called before rank or select are used.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.Arrays;
+
+public class BitVector
+{
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS = 64 * WORDS_PER_BLOCK;
+
+    private long[] words;
+    private long size = 0;
+    // ones before each block, with the total at the end
+    private long[] blockRanks;
+
+    /**
+     * @param expectedBits - number of bits expected, the vector grows if more
+     *                       are appended
+     */
+    public BitVector(long expectedBits)
+    {
+        words = new long[(int) Math.max(1, (expectedBits + 63) >>> 6)];
+    }
+
+    /**
+     * Adds a bit to the end of the vector.
+     *
+     * @param bit - value of the bit
+     */
+    public void append(boolean bit)
+    {
+        int word = (int) (size >>> 6);
+        if (word == words.length)
+        {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        if (bit)
+        {
+            words[word] |= 1L << (size & 63);
+        }
+        size++;
+    }
+
+    /**
+     * Trims the vector and builds the rank directory.
+     */
+    public void finish()
+    {
+        words = Arrays.copyOf(words, (int) ((size + 63) >>> 6));
+        int blocks = (words.length + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK;
+        blockRanks = new long[blocks + 1];
+        long ones = 0;
+        for (int i = 0; i < words.length; i++)
+        {
+            if (i % WORDS_PER_BLOCK == 0)
+            {
+                blockRanks[i / WORDS_PER_BLOCK] = ones;
+            }
+            ones += Long.bitCount(words[i]);
+        }
+        blockRanks[blocks] = ones;
+    }
+
+    /**
+     * @return the number of bits in the vector
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * @param i - position of the bit
+     * @return the value of the bit
+     */
+    public boolean get(long i)
+    {
+        return (words[(int) (i >>> 6)] & (1L << (i & 63))) != 0;
+    }
+
+    /**
+     * @param i - position, from 0 up to the size
+     * @return the number of ones before the position
+     */
+    public long rank1(long i)
+    {
+        int word = (int) (i >>> 6);
+        long rank = blockRanks[word / WORDS_PER_BLOCK];
+        for (int w = word - word % WORDS_PER_BLOCK; w < word; w++)
+        {
+            rank += Long.bitCount(words[w]);
+        }
+        if ((i & 63) != 0)
+        {
+            rank += Long.bitCount(words[word] & ((1L << (i & 63)) - 1));
+        }
+        return rank;
+    }
+
+    /**
+     * @param i - position, from 0 up to the size
+     * @return the number of zeros before the position
+     */
+    public long rank0(long i)
+    {
+        return i - rank1(i);
+    }
+
+    /**
+     * @param k - which one to find, starting from 1
+     * @return the position of the k-th one, or -1 if there are fewer ones
+     */
+    public long select1(long k)
+    {
+        return select(k, true);
+    }
+
+    /**
+     * @param k - which zero to find, starting from 1
+     * @return the position of the k-th zero, or -1 if there are fewer zeros
+     */
+    public long select0(long k)
+    {
+        return select(k, false);
+    }
+
+    private long select(long k, boolean ones)
+    {
+        int blocks = blockRanks.length - 1;
+        if (k < 1 || k > count(blocks, ones))
+        {
+            return -1;
+        }
+
+        // last block with fewer than k matching bits before it
+        int low = 0;
+        int high = blocks - 1;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (count(mid, ones) < k)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        long remaining = k - count(low, ones);
+        for (int w = low * WORDS_PER_BLOCK; w < words.length; w++)
+        {
+            long word = ones ? words[w] : ~words[w];
+            int bits = Long.bitCount(word);
+            if (bits >= remaining)
+            {
+                // drop the lowest matching bits until the one wanted is lowest
+                for (long r = remaining; r > 1; r--)
+                {
+                    word &= word - 1;
+                }
+                return ((long) w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= bits;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of ones, or zeros, before a block
+     */
+    private long count(int block, boolean ones)
+    {
+        if (ones)
+        {
+            return blockRanks[block];
+        }
+        long bits = Math.min((long) block * BLOCK_BITS, size);
+        return bits - blockRanks[block];
+    }
+
+    /**
+     * @return the size of the bits and the directory in bytes
+     */
+    public long getSizeInBytes()
+    {
+        return 8L * words.length + 8L * (blockRanks == null ? 0 : blockRanks.length);
+    }
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ File        : BloomFilter.java
+
+ Description : BloomFilter answers whether a word, or a prefix of a word, can
+               be in a trie without walking the trie, so lookups of garbage
+               input and other words that are not there are turned away at
+               once. Every word is put in as a word and as each of its
+               prefixes up to a fixed length, each setting a few bits chosen
+               by hashing it. A word or prefix whose bits are not all set was
+               never put in; one whose bits are all set probably was, wrong
+               only at about the false positive rate the filter was sized
+               for. Prefixes longer than the fixed length are checked by
+               their first characters. Words can be added at any time but not
+               taken out, so after words are removed the filter still works
+               but should be built again to bring the rate back down.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+public class BloomFilter
+{
+    // mixed into the hash of a whole word to tell it apart from a prefix
+    private static final long WORD_SALT = 0x9e3779b97f4a7c15L;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final int prefixLength;
+
+    /**
+     * @param expectedWords     - number of words expected to be added
+     * @param prefixLength      - longest prefix of each word to add
+     * @param falsePositiveRate - chance a key not added is let through,
+     *                            between 0 and 1
+     * @throws IllegalArgumentException
+     */
+    public BloomFilter(long expectedWords, int prefixLength, double falsePositiveRate)
+            throws IllegalArgumentException
+    {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+        {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1!");
+        }
+        if (prefixLength < 0)
+        {
+            throw new IllegalArgumentException("Prefix length can not be negative!");
+        }
+        this.prefixLength = prefixLength;
+
+        // each word adds itself and up to prefixLength prefixes, many shared
+        long keys = Math.max(1, expectedWords * (1 + prefixLength));
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        m = Math.max(64, (m + 63) & ~63L);
+
+        this.bits = new long[(int) Math.min(m >>> 6, Integer.MAX_VALUE - 8)];
+        this.bitCount = 64L * bits.length;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / keys * ln2));
+    }
+
+    /**
+     * Adds a word and its prefixes up to the prefix length.
+     *
+     * @param word - word to add
+     */
+    public void add(CharSequence word)
+    {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++)
+        {
+            h = (h ^ word.charAt(i)) * 0x100000001b3L;
+            if (i < prefixLength)
+            {
+                set(mix(h));
+            }
+        }
+        set(mix(h ^ WORD_SALT));
+    }
+
+    /**
+     * @param word - word to look for
+     * @return false if the word was never added; true if it probably was
+     */
+    public boolean mightContainWord(CharSequence word)
+    {
+        return test(mix(hash(word, word.length()) ^ WORD_SALT));
+    }
+
+    /**
+     * @param prefix - prefix to look for, the empty prefix always passing
+     * @return false if no word added starts with the prefix; true if one
+     * probably does
+     */
+    public boolean mightContainPrefix(CharSequence prefix)
+    {
+        int length = Math.min(prefix.length(), prefixLength);
+        return length == 0 || test(mix(hash(prefix, length)));
+    }
+
+    private static long hash(CharSequence key, int length)
+    {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++)
+        {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Sets the bits of a key, picked by double hashing the two halves of
+     * its hash.
+     */
+    private void set(long h)
+    {
+        long h1 = h >>> 32;
+        long h2 = (h & 0xffffffffL) | 1;
+        for (int i = 0; i < hashCount; i++)
+        {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private boolean test(long h)
+    {
+        long h1 = h >>> 32;
+        long h2 = (h & 0xffffffffL) | 1;
+        for (int i = 0; i < hashCount; i++)
+        {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the longest prefix of each word added
+     */
+    public int getPrefixLength()
+    {
+        return prefixLength;
+    }
+
+    /**
+     * @return the size of the bits in bytes
+     */
+    public long getSizeInBytes()
+    {
+        return 8L * bits.length;
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        java.util.List<String> words = DictionaryFinder.readWordsFromCSV("lotr.csv");
+        BloomFilter filter = new BloomFilter(2000, 3, 0.01);
+        for (String word : words)
+        {
+            filter.add(word);
+        }
+
+        java.util.Random random = new java.util.Random(1);
+        int passed = 0;
+        int tries = 100000;
+        for (int i = 0; i < tries; i++)
+        {
+            // random strings of 6 letters are almost never words
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 6; j++)
+            {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            if (filter.mightContainWord(sb))
+            {
+                passed++;
+            }
+        }
+        System.out.println(filter.getSizeInBytes() + " bytes, false positive rate "
+                + (double) passed / tries);
+        System.out.println("frodo " + filter.mightContainWord("frodo") + ", fro "
+                + filter.mightContainPrefix("fro") + ", qzx " + filter.mightContainPrefix("qzx"));
+    }
+}
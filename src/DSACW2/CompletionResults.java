@@ -0,0 +1,326 @@
+/*******************************************************************************
+ File        : CompletionResults.java
+
+ Description : CompletionResults holds the suggested words for one query,
+               with their counts and probabilities kept in primitive arrays.
+               It is made once by the caller and filled again for every
+               query, so no objects are created per result. The query is
+               stored once and the characters each suggested word adds to it
+               are kept in a shared character buffer. The results can be
+               written out in the lotrMatches.csv format or the console
+               format through a byte buffer using ProbabilityFormat.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class CompletionResults
+{
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+    private static final byte[] PROBABILITY = " (probability ".getBytes();
+
+    private String prefix = "";
+    private long total = 0;
+    private int size = 0;
+    private boolean partial = false;
+
+    // characters each word adds to the prefix, stored one after another
+    private char[] chars = new char[64];
+    private int charsUsed = 0;
+    private int[] starts;
+    private int[] lengths;
+    private int[] counts;
+    private double[] probabilities;
+
+    private byte[] buffer = new byte[256];
+
+    /**
+     * @param capacity - number of results expected, the arrays grow if more
+     *                   are added
+     */
+    public CompletionResults(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        counts = new int[capacity];
+        probabilities = new double[capacity];
+    }
+
+    /**
+     * Empties the results ready for a new query.
+     *
+     * @param prefix - the query the results are for
+     * @param total  - total count of every word starting with the query,
+     *                 used to work out the probabilities
+     */
+    public void clear(String prefix, long total)
+    {
+        this.prefix = prefix;
+        this.total = total;
+        this.size = 0;
+        this.charsUsed = 0;
+        this.partial = false;
+    }
+
+    /**
+     * Copies the results into a new CompletionResults with arrays and a
+     * write buffer of its own, so the copy can be written out or filled
+     * again on another thread without touching these results.
+     *
+     * @return CompletionResults holding the same words, counts and
+     * probabilities
+     */
+    public CompletionResults copy()
+    {
+        CompletionResults copy = new CompletionResults(size);
+        copy.prefix = prefix;
+        copy.total = total;
+        copy.size = size;
+        copy.partial = partial;
+        copy.chars = Arrays.copyOf(chars, Math.max(charsUsed, 1));
+        copy.charsUsed = charsUsed;
+        System.arraycopy(starts, 0, copy.starts, 0, size);
+        System.arraycopy(lengths, 0, copy.lengths, 0, size);
+        System.arraycopy(counts, 0, copy.counts, 0, size);
+        System.arraycopy(probabilities, 0, copy.probabilities, 0, size);
+        return copy;
+    }
+
+    /**
+     * Adds a word to the end of the results.
+     *
+     * @param suffix - characters the word adds to the prefix
+     * @param count  - count of the word
+     */
+    public void add(String suffix, int count)
+    {
+        int slot = reserve(suffix.length());
+        suffix.getChars(0, suffix.length(), chars, starts[slot]);
+        counts[slot] = count;
+        probabilities[slot] = count / (double) total;
+    }
+
+    /**
+     * Adds the word the search has just found to the end of the results.
+     *
+     * @param search - search positioned on a word by next
+     */
+    void add(TopKSearch search)
+    {
+        int slot = reserve(search.getDepth());
+        search.getWordChars(chars, starts[slot]);
+        counts[slot] = search.getNode().getCount();
+        probabilities[slot] = counts[slot] / (double) total;
+    }
+
+    private int reserve(int length)
+    {
+        if (size == counts.length)
+        {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            probabilities = Arrays.copyOf(probabilities, capacity);
+        }
+        if (charsUsed + length > chars.length)
+        {
+            chars = Arrays.copyOf(chars, Math.max(charsUsed + length, chars.length * 2));
+        }
+        starts[size] = charsUsed;
+        lengths[size] = length;
+        charsUsed += length;
+        return size++;
+    }
+
+    /**
+     * @return the number of results
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * @return true if the search ran out of time, so better words may have
+     * been missed; false otherwise
+     */
+    public boolean isPartial()
+    {
+        return partial;
+    }
+
+    /**
+     * @param partial - whether the search ran out of time
+     */
+    void setPartial(boolean partial)
+    {
+        this.partial = partial;
+    }
+
+    /**
+     * @return the query the results are for
+     */
+    public String getPrefix()
+    {
+        return prefix;
+    }
+
+    /**
+     * @return the total count used to work out the probabilities
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @param i - position of the result
+     * @return the whole suggested word, made into a new string
+     */
+    public String getWord(int i)
+    {
+        checkIndex(i);
+        return prefix + new String(chars, starts[i], lengths[i]);
+    }
+
+    /**
+     * @param i - position of the result
+     * @return the count of the suggested word
+     */
+    public int getCount(int i)
+    {
+        checkIndex(i);
+        return counts[i];
+    }
+
+    /**
+     * @param i - position of the result
+     * @return the probability of the suggested word
+     */
+    public double getProbability(int i)
+    {
+        checkIndex(i);
+        return probabilities[i];
+    }
+
+    private void checkIndex(int i)
+    {
+        if (i < 0 || i >= size)
+        {
+            throw new IndexOutOfBoundsException("No result at position " + i + "!");
+        }
+    }
+
+    /**
+     * Writes the results as one line of lotrMatches.csv: the query, then
+     * each word and its probability separated by commas. With no results
+     * only the line separator is written.
+     *
+     * @param out - stream to write to
+     * @throws IOException
+     */
+    public void writeCsvLine(OutputStream out) throws IOException
+    {
+        int offset = 0;
+        if (size > 0)
+        {
+            ensureBuffer(prefix.length() + 1);
+            offset = writeAscii(prefix, offset);
+            buffer[offset++] = ',';
+        }
+        for (int i = 0; i < size; i++)
+        {
+            ensureBuffer(offset + prefix.length() + lengths[i] + ProbabilityFormat.MAX_LENGTH + 2);
+            offset = writeWord(i, offset);
+            buffer[offset++] = ',';
+            offset = ProbabilityFormat.format(counts[i], total, buffer, offset);
+            if (i + 1 < size)
+            {
+                buffer[offset++] = ',';
+            }
+        }
+        ensureBuffer(offset + LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, buffer, offset, LINE_SEPARATOR.length);
+        out.write(buffer, 0, offset + LINE_SEPARATOR.length);
+    }
+
+    /**
+     * Writes each result on its own line in the console format, for example
+     * "about (probability 0.5667)".
+     *
+     * @param out - stream to write to
+     * @throws IOException
+     */
+    public void writeConsoleLines(OutputStream out) throws IOException
+    {
+        int offset = 0;
+        for (int i = 0; i < size; i++)
+        {
+            ensureBuffer(offset + prefix.length() + lengths[i] + PROBABILITY.length
+                    + ProbabilityFormat.MAX_LENGTH + 1 + LINE_SEPARATOR.length);
+            offset = writeWord(i, offset);
+            System.arraycopy(PROBABILITY, 0, buffer, offset, PROBABILITY.length);
+            offset += PROBABILITY.length;
+            offset = ProbabilityFormat.format(counts[i], total, buffer, offset);
+            buffer[offset++] = ')';
+            System.arraycopy(LINE_SEPARATOR, 0, buffer, offset, LINE_SEPARATOR.length);
+            offset += LINE_SEPARATOR.length;
+        }
+        out.write(buffer, 0, offset);
+    }
+
+    private int writeWord(int i, int offset)
+    {
+        offset = writeAscii(prefix, offset);
+        for (int j = starts[i]; j < starts[i] + lengths[i]; j++)
+        {
+            buffer[offset++] = (byte) chars[j];
+        }
+        return offset;
+    }
+
+    private int writeAscii(String str, int offset)
+    {
+        for (int j = 0; j < str.length(); j++)
+        {
+            buffer[offset++] = (byte) str.charAt(j);
+        }
+        return offset;
+    }
+
+    private void ensureBuffer(int length)
+    {
+        if (buffer.length < length)
+        {
+            buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+        }
+    }
+
+    /**
+     * @return String output of the results in the console format
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < size; i++)
+        {
+            stringBuilder.append(getWord(i)).append(" (probability ")
+                    .append(getProbability(i)).append(")\n");
+        }
+        return stringBuilder.toString();
+    }
+}
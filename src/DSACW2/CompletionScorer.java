@@ -0,0 +1,50 @@
+/*******************************************************************************
+ File        : CompletionScorer.java
+
+ Description : CompletionScorer is used to rank the words suggested by an
+               AutoCompletionTrie. A scorer turns the count of a word and its
+               length into a score, the higher the score the better the word.
+               The top words search uses the same scorer on the highest count
+               below a node to get an upper bound for the whole subtree, so a
+               scorer must never increase when the count goes down or when
+               the length goes up. COUNT ranks by the raw count and
+               lengthPenalty prefers shorter words of a similar count.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+public interface CompletionScorer
+{
+    // ranks words by how many times they occur
+    CompletionScorer COUNT = (count, length) -> count;
+
+    /**
+     * Scores a word. The score must not increase when count decreases or
+     * when length increases.
+     *
+     * @param count  - number of times the word occurs
+     * @param length - number of characters in the word
+     * @return the score of the word, higher is better
+     */
+    double score(int count, int length);
+
+    /**
+     * Creates a scorer that divides the count by a penalty that grows with
+     * the length of the word.
+     *
+     * @param penalty - penalty per character, must not be negative
+     * @return scorer ranking by count with a length penalty
+     * @throws IllegalArgumentException
+     */
+    static CompletionScorer lengthPenalty(double penalty) throws IllegalArgumentException
+    {
+        if (penalty < 0)
+        {
+            throw new IllegalArgumentException("Length penalty must not be negative!");
+        }
+        return (count, length) -> count / (1.0 + penalty * length);
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ File        : CompletionSession.java
+
+ Description : CompletionSession follows a user typing one character at a time
+               so each keystroke costs one step down the trie instead of a
+               new walk from the root. It keeps the nodes on the path to the
+               current prefix, so typing moves down one node and backspace
+               moves back up one, and characters typed after the prefix has
+               left the trie are only counted until they are deleted again.
+               The top words are found from the current node each time they
+               are asked for, into results owned by the session. The trie is
+               only read, never changed or copied, and must not be changed
+               while a session is in use.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.Arrays;
+
+public class CompletionSession
+{
+    private final AutoCompletionTrieNode root;
+    private final int k;
+    private final CompletionScorer scorer;
+    private final CompletionResults results;
+
+    // nodes on the path to the prefix, path[0] being the root
+    private AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[16];
+    private int depth = 0;
+    // characters typed after the prefix left the trie
+    private int deadChars = 0;
+    private final StringBuilder typed = new StringBuilder();
+
+    /**
+     * @param trie   - trie to complete from
+     * @param k      - number of words returned at each step
+     * @param scorer - scorer used to rank the words
+     */
+    public CompletionSession(AutoCompletionTrie trie, int k, CompletionScorer scorer)
+    {
+        this.root = trie.getTrieNode();
+        this.k = k;
+        this.scorer = scorer;
+        this.results = new CompletionResults(k);
+        path[0] = root;
+    }
+
+    /**
+     * Adds a character to the end of the prefix.
+     *
+     * @param c - character typed
+     * @return true if words still start with the prefix; false otherwise
+     */
+    public boolean type(char c)
+    {
+        typed.append(c);
+        if (deadChars == 0)
+        {
+            AutoCompletionTrieNode next = null;
+            if (c >= 'a' && c <= 'z')
+            {
+                next = path[depth].getOffspring(c);
+            }
+            if (next != null)
+            {
+                depth++;
+                if (depth == path.length)
+                {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth] = next;
+                return true;
+            }
+        }
+        deadChars++;
+        return false;
+    }
+
+    /**
+     * Removes the last character of the prefix.
+     *
+     * @return false if the prefix was already empty; true otherwise
+     */
+    public boolean backspace()
+    {
+        if (typed.length() == 0)
+        {
+            return false;
+        }
+        typed.setLength(typed.length() - 1);
+        if (deadChars > 0)
+        {
+            deadChars--;
+        }
+        else
+        {
+            path[depth--] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Clears the prefix to start a new word.
+     */
+    public void reset()
+    {
+        Arrays.fill(path, 1, depth + 1, null);
+        depth = 0;
+        deadChars = 0;
+        typed.setLength(0);
+    }
+
+    /**
+     * @return the characters typed so far
+     */
+    public String getPrefix()
+    {
+        return typed.toString();
+    }
+
+    /**
+     * @return true if any word starts with the prefix; false otherwise
+     */
+    public boolean hasMatches()
+    {
+        return deadChars == 0 && path[depth].getWordCount() > 0;
+    }
+
+    /**
+     * Finds the top words starting with the prefix typed so far. The results
+     * are reused by the next call, so must be read or copied first.
+     *
+     * @return CompletionResults of the session, empty if no word matches
+     */
+    public CompletionResults getCompletions()
+    {
+        if (deadChars > 0)
+        {
+            results.clear(getPrefix(), 0);
+        }
+        else
+        {
+            AutoCompletionTrie.getTopCompletions(path[depth], getPrefix(), k, scorer, results);
+        }
+        return results;
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+        CompletionSession session = new CompletionSession(trie, 3, CompletionScorer.COUNT);
+
+        for (char c : "goldx".toCharArray())
+        {
+            session.type(c);
+            System.out.println("'" + session.getPrefix() + "' matches: " + session.hasMatches());
+            System.out.print(session.getCompletions());
+        }
+        session.backspace();
+        session.backspace();
+        System.out.println("'" + session.getPrefix() + "' after two backspaces");
+        System.out.print(session.getCompletions());
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ File        : CountMinSketch.java
+
+ Description : CountMinSketch estimates how many times each word has been
+               seen using a fixed size table of counters, however many
+               different words there are. Each word is hashed to one counter
+               in every row and the smallest of those counters is its
+               estimate, which is never below the true count. With a width of
+               e / epsilon and a depth of ln(1 / delta) the estimate is more
+               than epsilon times the total count too high with a probability
+               of at most delta. Counters are only raised as far as needed
+               (conservative update), which keeps the estimates tighter.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+public class CountMinSketch
+{
+    private final int width;
+    private final int depth;
+    private final int[] counters;
+    private long total = 0;
+
+    /**
+     * @param epsilon - error allowed as a fraction of the total count
+     * @param delta   - probability of an estimate going over that error
+     * @throws IllegalArgumentException
+     */
+    public CountMinSketch(double epsilon, double delta) throws IllegalArgumentException
+    {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1)
+        {
+            throw new IllegalArgumentException("Epsilon and delta must be between 0 and 1!");
+        }
+        long w = (long) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        if (w * depth > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException("Epsilon is too small for the sketch to fit!");
+        }
+        this.width = (int) w;
+        this.counters = new int[width * depth];
+    }
+
+    /**
+     * Counts one more occurrence of a word.
+     *
+     * @param word - word seen
+     * @return the new estimate of the count of the word
+     */
+    public int add(String word)
+    {
+        long hash = hash(word);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++)
+        {
+            estimate = Math.min(estimate, counters[index(row, h1, h2)]);
+        }
+        if (estimate == Integer.MAX_VALUE)
+        {
+            return estimate;
+        }
+        estimate++;
+
+        // conservative update, only counters below the new estimate go up
+        for (int row = 0; row < depth; row++)
+        {
+            int i = index(row, h1, h2);
+            if (counters[i] < estimate)
+            {
+                counters[i] = estimate;
+            }
+        }
+        total++;
+        return estimate;
+    }
+
+    /**
+     * @param word - word to look up
+     * @return an estimate of the count of the word, never below the true count
+     */
+    public int estimate(String word)
+    {
+        long hash = hash(word);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++)
+        {
+            estimate = Math.min(estimate, counters[index(row, h1, h2)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the number of occurrences counted
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @return the size of the counter table in bytes
+     */
+    public long getSizeInBytes()
+    {
+        return 4L * counters.length;
+    }
+
+    private int index(int row, int h1, int h2)
+    {
+        // each row uses its own combination of the two hashes
+        int h = h1 + row * h2;
+        return row * width + (h & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the characters of a word with a final mix.
+     */
+    private static long hash(String word)
+    {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++)
+        {
+            h = (h ^ word.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
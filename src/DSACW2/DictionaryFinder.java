@@ -2,6 +2,7 @@ package DSACW2;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.ObjIntConsumer;
 
 /**
  *
@@ -9,7 +10,11 @@ import java.util.*;
  */
 public class DictionaryFinder
 {
-    TreeMap<String, Integer> dictionary;
+    // the words are kept once, in the trie, and read in order through the map
+    AutoCompletionTrie trie;
+    TrieNavigableMap dictionary;
+    // tokens with characters a trie can not hold, such as apostrophes
+    TreeMap<String, Integer> others;
 
     public DictionaryFinder(ArrayList<String> words)
     {
@@ -85,31 +90,86 @@ public class DictionaryFinder
     /**
      * Generates a dictionary out of an ArrayList of words with the words
      * being mapped as the keys and the frequency of each word being mapped as
-     * the values and sorts the words in alphabetical order
+     * the values and sorts the words in alphabetical order. The words of
+     * the letters a to z are counted in an AutoCompletionTrie, which is read
+     * as a sorted map through a TrieNavigableMap. Any other token, with an
+     * apostrophe, a digit or a line break in it, is counted in a TreeMap
+     * and merged in order when the dictionary is written out.
      *
      * @param  words - an ArrayList<String> of words
      * @author Dovydas Novikovas
      */
     public void formDictionary(ArrayList<String> words)
     {
-        // TreeMap used to order words alphabetically
-        dictionary = new TreeMap<>();
-
+        ArrayList<String> letters = new ArrayList<>(words.size());
+        others = new TreeMap<>();
         for (String word : words)
         {
-            if (dictionary.containsKey(word))
+            if (Trie.isLetters(word))
             {
-                dictionary.replace(word, dictionary.get(word)+1);
+                letters.add(word);
             }
             else
             {
-                dictionary.put(word,1);
+                others.merge(word, 1, Integer::sum);
             }
         }
+
+        // the trie lists its words alphabetically
+        trie = new AutoCompletionTrie();
+        trie.addAll(letters);
+        dictionary = new TrieNavigableMap(trie);
+    }
+
+    /**
+     * Passes every word and its count to the action in alphabetical order,
+     * merging the tokens the trie can not hold in among its words.
+     *
+     * @param action - action given each word and its count
+     */
+    private void forEachCount(ObjIntConsumer<String> action)
+    {
+        if (others.isEmpty())
+        {
+            dictionary.forEachCount(action);
+            return;
+        }
+
+        // last word of the trie passed on, the other tokens after it come next
+        String[] last = {null};
+        dictionary.forEachCount((key, count) ->
+        {
+            SortedMap<String, Integer> before = last[0] == null ? others.headMap(key)
+                    : others.subMap(last[0], false, key, false);
+            before.forEach(action::accept);
+            action.accept(key, count);
+            last[0] = key;
+        });
+        (last[0] == null ? others : others.tailMap(last[0], false)).forEach(action::accept);
+    }
+
+    /**
+     * Forms the dictionary of a document too large to count in memory and
+     * writes it out, using an ExternalDictionaryBuilder that spills sorted
+     * runs to temporary files and merges them. The words are read one at a
+     * time rather than into an ArrayList.
+     *
+     * @param  inFile     - name of a comma separated text document
+     * @param  outFile    - name of the dictionary file to write
+     * @param  heapBudget - bytes of heap the counts may use
+     * @param  binary     - true for a binary dictionary; false for csv
+     * @throws IOException
+     */
+    public static void saveDictionaryOutOfCore(String inFile, String outFile,
+                                               long heapBudget, boolean binary) throws IOException
+    {
+        ExternalDictionaryBuilder builder = new ExternalDictionaryBuilder(heapBudget, null);
+        builder.addFile(inFile);
+        builder.finish(outFile, binary);
     }
 
     /**
-     * Writes out a stream of Keys and Values in a TreeMap to a file called
+     * Writes out a stream of Keys and Values in the dictionary to a file called
      * "Dictionary.csv" with each key/value pair being separated on a new line
      *
      * @throws FileNotFoundException
@@ -125,10 +185,41 @@ public class DictionaryFinder
         writeOut.close();
     }
 
+    /**
+     * Writes the dictionary to a binary file that can be loaded with
+     * AutoCompletionTrie.loadBinaryDictionary. The words are written in
+     * alphabetical order, each one front coded against the word before it,
+     * with the lengths and counts as variable length integers.
+     *
+     * @param fileName - name of the binary file to write
+     * @throws IOException
+     */
+    public void saveToBinaryFile(String fileName) throws IOException
+    {
+        try (BinaryDictionary.Writer writer = new BinaryDictionary.Writer(fileName))
+        {
+            forEachCount((key, count) ->
+            {
+                try
+                {
+                    writer.write(key, count);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
     /**
      * Overrides the toString in class DictionaryFinder to format the ArrayList
      * to return a toString representation of a StringBuilder used to output
-     * a key and a value separated with a comma delimiter in a TreeMap
+     * a key and a value separated with a comma delimiter in the dictionary
      *
      * @return a string representation of a StringBuilder used to format output
      * @author Dovydas Novikovas
@@ -138,12 +229,9 @@ public class DictionaryFinder
     {
         StringBuilder stringBuilder = new StringBuilder();
 
-        for (Object key : dictionary.keySet())
-        {
-            // using string builder to format output as: "Word, Word Frequency"
-            stringBuilder.append(key).append(",").append(dictionary.get(key));
-            stringBuilder.append("\n");
-        }
+        // using string builder to format output as: "Word, Word Frequency"
+        forEachCount((key, count) ->
+                stringBuilder.append(key).append(",").append(count).append("\n"));
 
         return stringBuilder.toString();
     }
@@ -163,6 +251,26 @@ public class DictionaryFinder
 
         // testing if a file is successfully created when method is called
         df.saveToFile();
+
+        // testing if the binary dictionary loads back with the same counts
+        df.saveToBinaryFile("Dictionary.bin");
+        System.out.println(AutoCompletionTrie.loadBinaryDictionary("Dictionary.bin").getAllWords());
+
+        // testing a round trip of a document with digits and line breaks in
+        // its tokens, which both loaders skip
+        DictionaryFinder gollum = new DictionaryFinder(readWordsFromCSV("gollum.csv"));
+        gollum.saveToBinaryFile("Dictionary.bin");
+        AutoCompletionTrie eager = AutoCompletionTrie.loadBinaryDictionary("Dictionary.bin");
+        AutoCompletionTrie lazy = LazyAutoCompletionTrie.open("Dictionary.bin", 2);
+        List<String> words = gollum.trie.getAllWords();
+        boolean same = words.equals(eager.getAllWords()) && words.equals(lazy.getAllWords());
+        for (String word : words)
+        {
+            same &= gollum.trie.returnCount(word) == eager.returnCount(word)
+                    && gollum.trie.returnCount(word) == lazy.returnCount(word);
+        }
+        System.out.println("gollum.csv round trip: " + same + ", " + words.size()
+                + " words, " + gollum.others.size() + " other tokens skipped");
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ File        : ExternalDictionaryBuilder.java
+
+ Description : ExternalDictionaryBuilder forms the same dictionary as
+               DictionaryFinder.formDictionary for a corpus with more distinct
+               words than fit in the heap. Words are counted in a map whose
+               estimated size is kept under a budget. Whenever the budget is
+               reached the map is sorted and written to a temporary file as a
+               run in the BinaryDictionary format, and the map is emptied. At
+               the end the runs are merged together, several at a time, with
+               the counts of equal words added up, and written out as a
+               Dictionary.csv style file or as a binary dictionary. The memory
+               used depends on the budget and not on the size of the corpus.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.util.*;
+
+public class ExternalDictionaryBuilder
+{
+    // rough heap cost of a map entry: the string, the node, the table slot
+    // and the count, not counting the characters
+    private static final long ENTRY_OVERHEAD = 96;
+    // heap used by each run open while merging, mostly its read buffer
+    private static final long RUN_READ_COST = 1 << 16;
+    private static final int MAX_FAN_IN = 128;
+
+    private final long heapBudget;
+    private final File tempDirectory;
+    private final List<File> runs = new ArrayList<>();
+    private Map<String, Integer> buffer = new HashMap<>();
+    private long bufferBytes = 0;
+    private long wordsAdded = 0;
+
+    /**
+     * @param heapBudget    - bytes of heap the counts may use
+     * @param tempDirectory - directory for the runs, null for the default
+     * @throws IllegalArgumentException
+     */
+    public ExternalDictionaryBuilder(long heapBudget, File tempDirectory)
+            throws IllegalArgumentException
+    {
+        if (heapBudget < 2 * RUN_READ_COST)
+        {
+            throw new IllegalArgumentException("Heap budget must be at least "
+                    + 2 * RUN_READ_COST + " bytes!");
+        }
+        this.heapBudget = heapBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Counts one occurrence of a word, writing a run once the counts reach
+     * the heap budget.
+     *
+     * @param word - word to count
+     * @throws IOException
+     */
+    public void add(String word) throws IOException
+    {
+        Integer count = buffer.get(word);
+        if (count == null)
+        {
+            buffer.put(word, 1);
+            bufferBytes += ENTRY_OVERHEAD + word.length();
+            if (bufferBytes >= heapBudget)
+            {
+                spill();
+            }
+        }
+        else
+        {
+            buffer.put(word, count + 1);
+        }
+        wordsAdded++;
+    }
+
+    /**
+     * Counts every word in a comma separated text document, split in the
+     * same way as DictionaryFinder.readWordsFromCSV, a word at a time.
+     *
+     * @param fileName - name of a file
+     * @throws IOException
+     */
+    public void addFile(String fileName) throws IOException
+    {
+        try (Scanner sc = new Scanner(new File(fileName)))
+        {
+            sc.useDelimiter(" |,");
+            while (sc.hasNext())
+            {
+                add(sc.next().trim().toLowerCase());
+            }
+        }
+    }
+
+    /**
+     * Writes the counts in memory to a new run sorted by word.
+     */
+    private void spill() throws IOException
+    {
+        if (buffer.isEmpty())
+        {
+            return;
+        }
+        String[] words = buffer.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+
+        File run = File.createTempFile("dictionary-run", ".bin", tempDirectory);
+        run.deleteOnExit();
+        runs.add(run);
+        try (BinaryDictionary.Writer writer = new BinaryDictionary.Writer(run.getPath()))
+        {
+            for (String word : words)
+            {
+                writer.write(word, buffer.get(word));
+            }
+        }
+        // a new map, so the old table does not stay at its largest size
+        buffer = new HashMap<>();
+        bufferBytes = 0;
+    }
+
+    /**
+     * Merges every run and writes the dictionary. The builder can not be
+     * used again afterwards.
+     *
+     * @param fileName - file to write the dictionary to
+     * @param binary   - true to write a binary dictionary; false to write
+     *                   word,count lines like Dictionary.csv
+     * @throws IOException
+     */
+    public void finish(String fileName, boolean binary) throws IOException
+    {
+        spill();
+        try
+        {
+            // merge passes until every run can be open at once
+            int fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, heapBudget / RUN_READ_COST));
+            while (runs.size() > fanIn)
+            {
+                List<File> group = new ArrayList<>(runs.subList(0, fanIn));
+                runs.subList(0, fanIn).clear();
+
+                File merged = File.createTempFile("dictionary-run", ".bin", tempDirectory);
+                merged.deleteOnExit();
+                try (BinaryDictionary.Writer writer = new BinaryDictionary.Writer(merged.getPath()))
+                {
+                    merge(group, writer::write);
+                }
+                deleteAll(group);
+                runs.add(merged);
+            }
+
+            if (binary)
+            {
+                try (BinaryDictionary.Writer writer = new BinaryDictionary.Writer(fileName))
+                {
+                    merge(runs, writer::write);
+                }
+            }
+            else
+            {
+                try (Writer writer = new BufferedWriter(new FileWriter(fileName), 1 << 16))
+                {
+                    merge(runs, (word, count) ->
+                            writer.append(word).append(',').append(Integer.toString(count)).append('\n'));
+                }
+            }
+        }
+        finally
+        {
+            deleteAll(runs);
+            runs.clear();
+        }
+    }
+
+    /**
+     * Merges sorted runs, passing each distinct word and its total count to
+     * the output in order.
+     */
+    private void merge(List<File> group, Output output) throws IOException
+    {
+        PriorityQueue<BinaryDictionary.Reader> queue = new PriorityQueue<>(
+                Math.max(1, group.size()), ExternalDictionaryBuilder::compareWords);
+        List<BinaryDictionary.Reader> readers = new ArrayList<>();
+        try
+        {
+            for (File run : group)
+            {
+                BinaryDictionary.Reader reader = new BinaryDictionary.Reader(run.getPath());
+                readers.add(reader);
+                if (reader.next())
+                {
+                    queue.add(reader);
+                }
+            }
+
+            while (!queue.isEmpty())
+            {
+                BinaryDictionary.Reader reader = queue.poll();
+                String word = reader.getWord();
+                long count = reader.getCount();
+                advance(reader, queue);
+
+                // every run holding the same word is now at the top
+                while (!queue.isEmpty() && compareWords(queue.peek(), word) == 0)
+                {
+                    BinaryDictionary.Reader same = queue.poll();
+                    count += same.getCount();
+                    advance(same, queue);
+                }
+                output.write(word, (int) Math.min(count, Integer.MAX_VALUE));
+            }
+        }
+        finally
+        {
+            for (BinaryDictionary.Reader reader : readers)
+            {
+                reader.close();
+            }
+        }
+    }
+
+    private static void advance(BinaryDictionary.Reader reader,
+                                PriorityQueue<BinaryDictionary.Reader> queue) throws IOException
+    {
+        if (reader.next())
+        {
+            queue.add(reader);
+        }
+    }
+
+    private static int compareWords(BinaryDictionary.Reader reader, String word)
+    {
+        char[] chars = reader.getChars();
+        int length = reader.getLength();
+        int limit = Math.min(length, word.length());
+        for (int i = 0; i < limit; i++)
+        {
+            if (chars[i] != word.charAt(i))
+            {
+                return chars[i] - word.charAt(i);
+            }
+        }
+        return length - word.length();
+    }
+
+    private static int compareWords(BinaryDictionary.Reader a, BinaryDictionary.Reader b)
+    {
+        char[] x = a.getChars();
+        char[] y = b.getChars();
+        int limit = Math.min(a.getLength(), b.getLength());
+        for (int i = 0; i < limit; i++)
+        {
+            if (x[i] != y[i])
+            {
+                return x[i] - y[i];
+            }
+        }
+        return a.getLength() - b.getLength();
+    }
+
+    private static void deleteAll(List<File> files)
+    {
+        for (File file : files)
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * @return the number of words counted
+     */
+    public long getWordsAdded()
+    {
+        return wordsAdded;
+    }
+
+    /**
+     * @return the number of runs written so far and not yet merged
+     */
+    public int getRunCount()
+    {
+        return runs.size();
+    }
+
+    /**
+     * Receives the merged words in order.
+     */
+    private interface Output
+    {
+        void write(String word, int count) throws IOException;
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        // a budget small enough to make lotr.csv spill several runs
+        ExternalDictionaryBuilder builder = new ExternalDictionaryBuilder(1 << 17, null);
+        builder.addFile("lotr.csv");
+        System.out.println(builder.getWordsAdded() + " words counted, "
+                + builder.getRunCount() + " runs written");
+        builder.finish("lotrDictionary.csv", false);
+
+        System.out.println(new DictionaryFinder(DictionaryFinder.readWordsFromCSV("lotr.csv"))
+                .toString().equals(new String(java.nio.file.Files.readAllBytes(
+                        new File("lotrDictionary.csv").toPath()))));
+    }
+}
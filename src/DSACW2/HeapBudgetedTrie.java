@@ -0,0 +1,352 @@
+/*******************************************************************************
+ File        : HeapBudgetedTrie.java
+
+ Description : HeapBudgetedTrie keeps an AutoCompletionTrie within a memory
+               budget so a long running ingest can run in a fixed heap. The
+               size of the trie is estimated from its number of nodes after
+               every word added, and once it goes over the budget a pass on a
+               background thread removes the words with the lowest counts,
+               and the nodes left empty, until the estimate is back under a
+               lower mark. The pass raises a floor on counts: a word that is
+               not in the trie has to be seen as many times as the floor
+               before it is let back in, counted meanwhile in a small
+               SpaceSavingTable used as a doorkeeper, so the tail that was
+               removed does not come straight back. A word let in leaves the
+               doorkeeper, and words removed are put in it with their counts
+               so any that come back carry on from where they were. Only
+               words below the floor
+               are removed, and every sighting of a word is added to the
+               totals whether it is kept or not, so the top words of common
+               prefixes and their probabilities stay the same. The trie is
+               changed under the write lock and queried under the read lock,
+               and a pass works out each new floor under the read lock, only
+               taking the write lock to remove the words below it.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class HeapBudgetedTrie implements AutoCloseable
+{
+    // a pass stops once the estimate is at this share of the budget
+    private static final double LOW_MARK = 0.8;
+
+    private final AutoCompletionTrie trie;
+    private final long budget;
+    private final SpaceSavingTable doorkeeper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean passScheduled = new AtomicBoolean();
+    private final ExecutorService evictor = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "trie-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int floor = 1;
+    private volatile long evicted = 0;
+    private volatile int passes = 0;
+
+    /**
+     * @param trie               - trie to keep within the budget
+     * @param budget             - most bytes the trie is estimated to retain
+     * @param doorkeeperCapacity - number of words not in the trie whose
+     *                             counts are kept while they reach the floor
+     */
+    public HeapBudgetedTrie(AutoCompletionTrie trie, long budget, int doorkeeperCapacity)
+    {
+        this.trie = trie;
+        this.budget = budget;
+        this.doorkeeper = new SpaceSavingTable(doorkeeperCapacity);
+    }
+
+    /**
+     * Adds a word once. A word not in the trie is only added once it has
+     * been seen as many times as the floor, with the count it reached.
+     *
+     * @param word - word to add
+     * @throws IllegalArgumentException
+     */
+    public void add(String word) throws IllegalArgumentException
+    {
+        boolean overBudget;
+        lock.writeLock().lock();
+        try
+        {
+            AutoCompletionTrieNode node = trie.findNode(word);
+            if (floor <= 1 || (node != null && node.getIsWord()))
+            {
+                trie.add(word);
+            }
+            else
+            {
+                doorkeeper.offer(word);
+                // only the part of the count the table is sure of
+                long seen = doorkeeper.getCount(word) - doorkeeper.getError(word);
+                if (seen >= floor)
+                {
+                    // the earlier sightings are already in the totals of
+                    // the nodes that existed, the nodes made now get them all
+                    trie.add(word, (int) Math.min(seen, Integer.MAX_VALUE), 1);
+                    doorkeeper.remove(word);
+                }
+                else
+                {
+                    trie.addToTotals(word, 1);
+                }
+            }
+            overBudget = trie.getEstimatedSize() > budget;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+
+        if (overBudget && passScheduled.compareAndSet(false, true))
+        {
+            evictor.execute(() ->
+            {
+                passScheduled.set(false);
+                evict();
+            });
+        }
+    }
+
+    /**
+     * Removes the words with the lowest counts until the estimated size is
+     * below the low mark, raising the floor. Run on the background thread
+     * once over budget, but can also be called directly, one pass at a
+     * time.
+     *
+     * @return the number of words removed
+     */
+    public synchronized int evict()
+    {
+        int removed = 0;
+        long target = (long) (budget * LOW_MARK);
+        for (int next = nextFloor(target); next > 0; next = nextFloor(target))
+        {
+            // adds may have come in meanwhile, but only words below the
+            // floor are removed, so the floor worked out is still safe
+            lock.writeLock().lock();
+            try
+            {
+                removed += trie.evictBelow(next, this::remember);
+                floor = Math.max(floor, next);
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+        evicted += removed;
+        passes++;
+        return removed;
+    }
+
+    /**
+     * Works out the floor that removes enough of the words with the lowest
+     * counts to bring the estimated size back under the target, under the
+     * read lock so queries carry on while the counts are sorted.
+     *
+     * @param target - estimated size the pass stops at
+     * @return the next floor, 0 if the trie is already under the target
+     */
+    private int nextFloor(long target)
+    {
+        lock.readLock().lock();
+        try
+        {
+            if (trie.getEstimatedSize() <= target || trie.getDistinctWordCount() == 0)
+            {
+                return 0;
+            }
+            int[] counts = getCounts();
+            Arrays.sort(counts);
+
+            // keep about as many words as nodes the target allows
+            double keep = (double) target / trie.getEstimatedSize();
+            int drop = (int) Math.min(counts.length - 1, counts.length * (1 - keep));
+            int next = Math.max(floor, counts[Math.max(drop, 0)]);
+            if (next <= counts[0])
+            {
+                // the words with the lowest count always go
+                next = counts[0] + 1;
+            }
+            return next;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the count of a word removed in the doorkeeper, so if it comes
+     * back it carries on from that count rather than starting again.
+     */
+    private void remember(String word, int count)
+    {
+        if (!doorkeeper.contains(word)
+                && (!doorkeeper.isFull() || count > doorkeeper.getMinCount()))
+        {
+            doorkeeper.put(word, count, 0);
+        }
+    }
+
+    private int[] getCounts()
+    {
+        int[] counts = new int[trie.getDistinctWordCount()];
+        WordCursor cursor = new WordCursor(trie.getTrieNode(), "");
+        for (int i = 0; cursor.next(); i++)
+        {
+            counts[i] = cursor.getCount();
+        }
+        return counts;
+    }
+
+    /**
+     * Fills the results passed in with the top words starting with a prefix,
+     * under the read lock.
+     *
+     * @param prefix  - prefix the words must start with
+     * @param k       - maximum number of words
+     * @param scorer  - scorer used to rank the words
+     * @param results - results to fill, emptied first
+     * @return true if any word starts with the prefix; false otherwise
+     */
+    public boolean getTopCompletions(String prefix, int k, CompletionScorer scorer,
+                                     CompletionResults results)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return trie.getTopCompletions(prefix, k, scorer, results);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for any pass that has been started to finish.
+     *
+     * @throws Exception
+     */
+    public void awaitEviction() throws Exception
+    {
+        Future<?> marker = evictor.submit(() -> { });
+        marker.get();
+    }
+
+    /**
+     * @return the estimated bytes retained by the trie
+     */
+    public long getEstimatedSize()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return trie.getEstimatedSize();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the lowest count a word needs to be let into the trie
+     */
+    public int getFloor()
+    {
+        return floor;
+    }
+
+    /**
+     * @return the number of words removed so far
+     */
+    public long getEvictedCount()
+    {
+        return evicted;
+    }
+
+    /**
+     * @return the number of passes run so far
+     */
+    public int getPassCount()
+    {
+        return passes;
+    }
+
+    /**
+     * @return the lock the trie is changed and read under, for callers that
+     * use the trie directly
+     */
+    public ReadWriteLock getLock()
+    {
+        return lock;
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    @Override
+    public void close()
+    {
+        evictor.shutdown();
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie unbounded = new AutoCompletionTrie();
+        AutoCompletionTrie bounded = new AutoCompletionTrie();
+        try (HeapBudgetedTrie budgeted = new HeapBudgetedTrie(bounded, 512 * 1024, 1000))
+        {
+            // the lotr words with a long tail of rare made up words mixed in
+            java.util.Random random = new java.util.Random(7);
+            for (int pass = 0; pass < 20; pass++)
+            {
+                for (String word : DictionaryFinder.readWordsFromCSV("lotr.csv"))
+                {
+                    unbounded.add(word);
+                    budgeted.add(word);
+                    String rare = word + (char) ('a' + random.nextInt(26))
+                            + (char) ('a' + random.nextInt(26));
+                    unbounded.add(rare);
+                    budgeted.add(rare);
+                }
+            }
+            budgeted.awaitEviction();
+
+            System.out.println("Unbounded: " + unbounded.getEstimatedSize() + " bytes, "
+                    + unbounded.getDistinctWordCount() + " words");
+            System.out.println("Bounded:   " + budgeted.getEstimatedSize() + " bytes, "
+                    + bounded.getDistinctWordCount() + " words, floor " + budgeted.getFloor()
+                    + ", " + budgeted.getPassCount() + " passes");
+
+            CompletionResults expected = new CompletionResults(3);
+            CompletionResults actual = new CompletionResults(3);
+            for (String prefix : new String[] {"", "t", "the", "go", "fro"})
+            {
+                unbounded.getTopCompletions(prefix, 3, CompletionScorer.COUNT, expected);
+                budgeted.getTopCompletions(prefix, 3, CompletionScorer.COUNT, actual);
+                System.out.println("'" + prefix + "' "
+                        + (expected.toString().equals(actual.toString()) ? "same" : "differs")
+                        + ": " + actual.toString().replace('\n', ' '));
+            }
+        }
+    }
+}
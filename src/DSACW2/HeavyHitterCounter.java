@@ -0,0 +1,176 @@
+/*******************************************************************************
+ File        : HeavyHitterCounter.java
+
+ Description : HeavyHitterCounter counts the words of a corpus too large to
+               count exactly, in a fixed amount of memory. Every word goes
+               into a CountMinSketch, and a SpaceSavingTable keeps the words
+               that are most likely to be among the most common. A new word
+               only takes a place in the table once its estimate from the
+               sketch beats the lowest count in the table, so the long tail of
+               rare words, typos and hashes never pushes out common words.
+               promoteTo adds the top words to an AutoCompletionTrie with a
+               count no higher than either estimate.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+
+public class HeavyHitterCounter
+{
+    private final CountMinSketch sketch;
+    private final SpaceSavingTable table;
+
+    /**
+     * @param epsilon  - error of the sketch as a fraction of the total count
+     * @param delta    - probability of the sketch going over that error
+     * @param capacity - number of words kept in the heavy hitter table,
+     *                   which should be a few times the number to promote
+     * @throws IllegalArgumentException
+     */
+    public HeavyHitterCounter(double epsilon, double delta, int capacity)
+            throws IllegalArgumentException
+    {
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.table = new SpaceSavingTable(capacity);
+    }
+
+    /**
+     * Counts one occurrence of a word.
+     *
+     * @param word - word seen
+     */
+    public void offer(String word)
+    {
+        int estimate = sketch.add(word);
+
+        if (!table.increment(word, 1))
+        {
+            // only words the sketch rates above the lowest word get a place
+            if (!table.isFull() || estimate > table.getMinCount())
+            {
+                table.put(word, estimate, estimate - 1);
+            }
+        }
+    }
+
+    /**
+     * Counts every word in a comma separated text document, reading it a
+     * word at a time in the same way as DictionaryFinder.readWordsFromCSV
+     * without keeping the words in memory.
+     *
+     * @param fileName - name of a file
+     * @throws FileNotFoundException
+     */
+    public void offerFile(String fileName) throws FileNotFoundException
+    {
+        try (Scanner sc = new Scanner(new File(fileName)))
+        {
+            sc.useDelimiter(" |,");
+            while (sc.hasNext())
+            {
+                String word = sc.next().trim().toLowerCase();
+                if (!word.isEmpty())
+                {
+                    offer(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param word - word to look up
+     * @return the estimated count of the word, never below the true count
+     */
+    public long estimate(String word)
+    {
+        long estimate = sketch.estimate(word);
+        if (table.contains(word))
+        {
+            estimate = Math.min(estimate, table.getCount(word));
+        }
+        return estimate;
+    }
+
+    /**
+     * @param word - word to look up
+     * @return a count the true count of the word is known to be at least
+     */
+    public long guaranteedCount(String word)
+    {
+        return table.getCount(word) - table.getError(word);
+    }
+
+    /**
+     * Adds the words with the highest estimated counts to an
+     * AutoCompletionTrie, skipping any word with characters outside a-z.
+     * The estimates of the other words in the table are added to the totals
+     * along their paths, and the rest of the total, of words the table did
+     * not keep, to the root, so the probabilities are out of every word
+     * counted rather than only the words added.
+     *
+     * @param trie - trie to add the words to
+     * @param topN - number of words to add
+     * @return the number of words added
+     */
+    public int promoteTo(AutoCompletionTrie trie, int topN)
+    {
+        int added = 0;
+        long counted = 0;
+        List<String> words = table.getTopWords(table.size());
+        for (int i = 0; i < words.size(); i++)
+        {
+            String word = words.get(i);
+            long count = estimate(word);
+            counted += count;
+            if (!Trie.isLetters(word))
+            {
+                continue;
+            }
+            if (i < topN)
+            {
+                trie.add(word, (int) Math.min(count, Integer.MAX_VALUE));
+                added++;
+            }
+            else
+            {
+                trie.addToTotals(word, count);
+            }
+        }
+        // the estimates are never below the true counts, so can add up to more
+        trie.addToTotals("", Math.max(0, getTotal() - counted));
+        return added;
+    }
+
+    /**
+     * @return the number of occurrences counted
+     */
+    public long getTotal()
+    {
+        return sketch.getTotal();
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        // a small table and a loose sketch, compared with the exact counts
+        HeavyHitterCounter counter = new HeavyHitterCounter(0.001, 0.01, 2000);
+        counter.offerFile("lotr.csv");
+        AutoCompletionTrie approximate = new AutoCompletionTrie();
+        counter.promoteTo(approximate, 1000);
+
+        AutoCompletionTrie exact = new AutoCompletionTrie();
+        exact.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+
+        for (String query : DictionaryFinder.loadPrefixes("lotrQueries.csv"))
+        {
+            System.out.println(query + ": exact " + exact.getTopWords(query, 3, CompletionScorer.COUNT)
+                    + " approximate " + approximate.getTopWords(query, 3, CompletionScorer.COUNT));
+        }
+    }
+}
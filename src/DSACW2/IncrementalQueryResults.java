@@ -0,0 +1,221 @@
+/*******************************************************************************
+ File        : IncrementalQueryResults.java
+
+ Description : IncrementalQueryResults keeps the lotrMatches.csv line of
+               every query of a query file up to date as words are added to
+               an AutoCompletionTrie, working out again only the lines that
+               can have changed. The top words and probabilities of a query
+               only depend on the words starting with it, so a change to a
+               word can only change the lines of the queries that are
+               prefixes of it. The trie tells the results of every word
+               changed, and refresh walks the prefixes of each word changed
+               since the last refresh, looks up the queries equal to them,
+               and works out only those lines again. The lines are kept as
+               bytes, so writing the file again copies the lines that did not
+               change rather than searching the trie for them, and a refresh
+               costs the number of words changed times their length rather
+               than the number of queries.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.util.*;
+
+public class IncrementalQueryResults
+{
+    private final AutoCompletionTrie trie;
+    private final List<String> queries;
+    private final int k;
+    // csv line of each query, null for a query with no words
+    private final byte[][] lines;
+    // positions of each query in the list, a query may be repeated
+    private final Map<String, List<Integer>> positions = new HashMap<>();
+    // words changed since the last refresh
+    private final Set<String> changed = new HashSet<>();
+    private final boolean[] stale;
+    private final CompletionResults results;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+    /**
+     * Works out the line of every query and starts listening for changes to
+     * the trie, replacing any change listener it had.
+     *
+     * @param trie    - trie the queries are answered from
+     * @param queries - queries in the order their lines are written
+     * @param k       - number of words on each line
+     */
+    public IncrementalQueryResults(AutoCompletionTrie trie, List<String> queries, int k)
+    {
+        this.trie = trie;
+        this.queries = new ArrayList<>(queries);
+        this.k = k;
+        this.lines = new byte[this.queries.size()][];
+        this.stale = new boolean[this.queries.size()];
+        this.results = new CompletionResults(k);
+
+        for (int i = 0; i < this.queries.size(); i++)
+        {
+            positions.computeIfAbsent(this.queries.get(i), query -> new ArrayList<>()).add(i);
+            lines[i] = answer(this.queries.get(i));
+        }
+        trie.setChangeListener(changed::add);
+    }
+
+    /**
+     * @param query - query to answer
+     * @return the csv line of the query, null if no word starts with it
+     */
+    private byte[] answer(String query)
+    {
+        try
+        {
+            if (!trie.getTopCompletions(query, k, CompletionScorer.COUNT, results))
+            {
+                return null;
+            }
+            line.reset();
+            results.writeCsvLine(line);
+            return line.toByteArray();
+        }
+        catch (IllegalArgumentException e)
+        {
+            // a character that can not be in the trie matches no words
+            return null;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Works out again the lines of the queries that are prefixes of a word
+     * changed since the last refresh.
+     *
+     * @return the number of lines worked out again
+     */
+    public int refresh()
+    {
+        List<Integer> affected = new ArrayList<>();
+        for (String word : changed)
+        {
+            for (int length = 0; length <= word.length(); length++)
+            {
+                List<Integer> found = positions.get(word.substring(0, length));
+                if (found == null)
+                {
+                    continue;
+                }
+                for (int i : found)
+                {
+                    // a query can be a prefix of many of the words changed
+                    if (!stale[i])
+                    {
+                        stale[i] = true;
+                        affected.add(i);
+                    }
+                }
+            }
+        }
+        changed.clear();
+
+        for (int i : affected)
+        {
+            lines[i] = answer(queries.get(i));
+            stale[i] = false;
+        }
+        return affected.size();
+    }
+
+    /**
+     * @return the number of words changed since the last refresh
+     */
+    public int getChangedCount()
+    {
+        return changed.size();
+    }
+
+    /**
+     * Writes the line of every query with words, in the order of the
+     * queries.
+     *
+     * @param out - stream to write to
+     * @throws IOException
+     */
+    public void write(OutputStream out) throws IOException
+    {
+        for (byte[] bytes : lines)
+        {
+            if (bytes != null)
+            {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Writes the lines to a file, replacing what was in it.
+     *
+     * @param fileName - name of the file to write
+     * @throws IOException
+     */
+    public void writeToFile(String fileName) throws IOException
+    {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(fileName)))
+        {
+            write(out);
+        }
+    }
+
+    /**
+     * Stops listening for changes to the trie.
+     */
+    public void detach()
+    {
+        trie.setChangeListener(null);
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+        ArrayList<String> queries = DictionaryFinder.loadPrefixes("lotrQueries.csv");
+
+        long start = System.nanoTime();
+        IncrementalQueryResults incremental = new IncrementalQueryResults(trie, queries, 3);
+        System.out.println(queries.size() + " lines worked out in "
+                + (System.nanoTime() - start) / 1000 + "us");
+        incremental.writeToFile("lotrMatchesIncremental.csv");
+
+        // a handful of new words only touch the queries that are their prefixes
+        trie.add("frodos");
+        trie.add("gollum", 40);
+        trie.add("zebra");
+        start = System.nanoTime();
+        int refreshed = incremental.refresh();
+        System.out.println(refreshed + " lines worked out again in "
+                + (System.nanoTime() - start) / 1000 + "us");
+        incremental.writeToFile("lotrMatchesIncremental.csv");
+
+        // the file matches one worked out from scratch
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        CompletionResults results = new CompletionResults(3);
+        for (String query : queries)
+        {
+            if (trie.getTopCompletions(query, 3, CompletionScorer.COUNT, results))
+            {
+                results.writeCsvLine(expected);
+            }
+        }
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        incremental.write(actual);
+        System.out.println("Same as from scratch: "
+                + Arrays.equals(expected.toByteArray(), actual.toByteArray()));
+        System.out.print(actual);
+    }
+}
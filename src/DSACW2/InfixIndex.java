@@ -0,0 +1,316 @@
+/*******************************************************************************
+ File        : InfixIndex.java
+
+ Description : InfixIndex finds the words containing a string anywhere in
+               them, such as "lum" in "gollum", which a trie can only do by
+               visiting every word. The words of an AutoCompletionTrie are
+               numbered in ranking order, highest count first, then shortest
+               and then alphabetical, and every string of one, two or three
+               letters found in a word points to the numbers of the words it
+               is found in. A query walks the shortest of the lists for the
+               strings in it, checks the other lists and then the word itself,
+               and since the lists are in ranking order it stops after the
+               first k words that match. The index is a copy, so it has to be
+               built again after the trie is changed.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.*;
+
+public class InfixIndex
+{
+    private static final int ALPHABET = 26;
+    // keys of the grams of one, two and three letters follow each other
+    private static final int BIGRAM_BASE = ALPHABET;
+    private static final int TRIGRAM_BASE = BIGRAM_BASE + ALPHABET * ALPHABET;
+    private static final int KEYS = TRIGRAM_BASE + ALPHABET * ALPHABET * ALPHABET;
+
+    // words indexed by word number, in ranking order
+    private final String[] words;
+    // postings of key g are postings[offsets[g]] up to postings[offsets[g + 1]]
+    private final int[] offsets;
+    private final int[] postings;
+
+    /**
+     * Builds the index of the words in an AutoCompletionTrie.
+     *
+     * @param trie - trie whose words are indexed
+     * @return InfixIndex of the words and counts of the trie
+     */
+    public static InfixIndex of(AutoCompletionTrie trie)
+    {
+        int size = trie.getDistinctWordCount();
+        String[] words = new String[size];
+        int[] counts = new int[size];
+        WordCursor cursor = new WordCursor(trie.getTrieNode(), "");
+        for (int i = 0; cursor.next(); i++)
+        {
+            words[i] = cursor.getWord();
+            counts[i] = cursor.getCount();
+        }
+        return new InfixIndex(words, counts);
+    }
+
+    /**
+     * @param words  - different words, in any order
+     * @param counts - count of each word
+     */
+    private InfixIndex(String[] words, int[] counts)
+    {
+        Integer[] order = new Integer[words.length];
+        for (int i = 0; i < order.length; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) ->
+        {
+            if (counts[a] != counts[b])
+            {
+                return Integer.compare(counts[b], counts[a]);
+            }
+            if (words[a].length() != words[b].length())
+            {
+                return Integer.compare(words[a].length(), words[b].length());
+            }
+            return words[a].compareTo(words[b]);
+        });
+
+        this.words = new String[words.length];
+        for (int i = 0; i < order.length; i++)
+        {
+            this.words[i] = words[order[i]];
+        }
+
+        // first count the postings of each key, then fill them in
+        offsets = new int[KEYS + 1];
+        int[] keys = new int[64];
+        for (String word : this.words)
+        {
+            keys = ensureCapacity(keys, 3 * word.length());
+            int n = distinctKeys(word, keys);
+            for (int i = 0; i < n; i++)
+            {
+                offsets[keys[i] + 1]++;
+            }
+        }
+        for (int g = 0; g < KEYS; g++)
+        {
+            offsets[g + 1] += offsets[g];
+        }
+
+        postings = new int[offsets[KEYS]];
+        int[] fill = Arrays.copyOf(offsets, KEYS);
+        for (int id = 0; id < this.words.length; id++)
+        {
+            int n = distinctKeys(this.words[id], keys);
+            for (int i = 0; i < n; i++)
+            {
+                postings[fill[keys[i]]++] = id;
+            }
+        }
+    }
+
+    private static int[] ensureCapacity(int[] array, int size)
+    {
+        return array.length >= size ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    /**
+     * Writes the keys of every gram of one to three letters in a word, each
+     * key once.
+     *
+     * @return the number of keys written, or -1 if a character is not a
+     * letter from a to z
+     */
+    private static int distinctKeys(CharSequence word, int[] keys)
+    {
+        int n = 0;
+        for (int i = 0; i < word.length(); i++)
+        {
+            int a = word.charAt(i) - 'a';
+            if (a < 0 || a >= ALPHABET)
+            {
+                return -1;
+            }
+            keys[n++] = a;
+            if (i + 1 < word.length())
+            {
+                int b = word.charAt(i + 1) - 'a';
+                if (b < 0 || b >= ALPHABET)
+                {
+                    return -1;
+                }
+                keys[n++] = BIGRAM_BASE + a * ALPHABET + b;
+                if (i + 2 < word.length())
+                {
+                    int c = word.charAt(i + 2) - 'a';
+                    if (c < 0 || c >= ALPHABET)
+                    {
+                        return -1;
+                    }
+                    keys[n++] = TRIGRAM_BASE + (a * ALPHABET + b) * ALPHABET + c;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (distinct == 0 || keys[distinct - 1] != keys[i])
+            {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Finds the words containing a string, highest count first, then
+     * shortest and then alphabetical.
+     *
+     * @param infix - string the words must contain
+     * @param k     - maximum number of words to return
+     * @return List, the best k words containing the string
+     */
+    public List<String> getTopWords(String infix, int k)
+    {
+        List<String> found = new ArrayList<>();
+        if (k <= 0)
+        {
+            return found;
+        }
+        if (infix.isEmpty())
+        {
+            for (int id = 0; id < words.length && found.size() < k; id++)
+            {
+                found.add(words[id]);
+            }
+            return found;
+        }
+
+        int[] keys = new int[3 * infix.length()];
+        int n = distinctKeys(infix, keys);
+        if (n < 0)
+        {
+            return found;
+        }
+
+        // the longest grams narrow down the words the most, a string of up
+        // to three letters being a single gram
+        int base = infix.length() == 1 ? 0 : infix.length() == 2 ? BIGRAM_BASE : TRIGRAM_BASE;
+        int first = 0;
+        while (keys[first] < base)
+        {
+            first++;
+        }
+        int[] lists = Arrays.copyOfRange(keys, first, n);
+        Integer[] byLength = new Integer[lists.length];
+        for (int i = 0; i < lists.length; i++)
+        {
+            byLength[i] = lists[i];
+        }
+        Arrays.sort(byLength, Comparator.comparingInt(g -> offsets[g + 1] - offsets[g]));
+
+        // positions reached in each of the longer lists
+        int shortest = byLength[0];
+        int[] positions = new int[byLength.length];
+        for (int i = 1; i < byLength.length; i++)
+        {
+            positions[i] = offsets[byLength[i]];
+        }
+
+        candidates:
+        for (int p = offsets[shortest]; p < offsets[shortest + 1] && found.size() < k; p++)
+        {
+            int id = postings[p];
+            for (int i = 1; i < byLength.length; i++)
+            {
+                int end = offsets[byLength[i] + 1];
+                positions[i] = advance(positions[i], end, id);
+                if (positions[i] == end)
+                {
+                    // a list has run out so no later word can match
+                    break candidates;
+                }
+                if (postings[positions[i]] != id)
+                {
+                    continue candidates;
+                }
+            }
+            // the grams can be in the word in a different order
+            if (infix.length() <= 3 || words[id].contains(infix))
+            {
+                found.add(words[id]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gallops forward through a posting list to the first word number that
+     * is not less than the one wanted.
+     *
+     * @return the position found, or end if every number left is less
+     */
+    private int advance(int from, int end, int id)
+    {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < end && postings[high] < id)
+        {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, end);
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (postings[mid] < id)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the number of words indexed
+     */
+    public int size()
+    {
+        return words.length;
+    }
+
+    /**
+     * @return the size of the offsets and postings in bytes, not counting
+     * the words themselves
+     */
+    public long getSizeInBytes()
+    {
+        return 4L * offsets.length + 4L * postings.length;
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+        InfixIndex index = InfixIndex.of(trie);
+
+        System.out.println(index.size() + " words, " + index.getSizeInBytes() + " bytes");
+        for (String infix : new String[] {"lum", "ing", "ow", "th", "q", "berry", "xyz"})
+        {
+            System.out.println("'" + infix + "': " + index.getTopWords(infix, 3));
+        }
+    }
+}
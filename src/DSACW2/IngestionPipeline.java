@@ -0,0 +1,456 @@
+/*******************************************************************************
+ File        : IngestionPipeline.java
+
+ Description : IngestionPipeline feeds words from an unbounded stream, such
+               as stdin or a tailed log file, into an AutoCompletionTrie while
+               it is being queried. The work is split into four stages, each
+               on its own thread: read lines, split them into words, add up
+               the counts of each word into a batch, and apply the batch to
+               the trie. The stages are joined by bounded queues, so a slow
+               stage blocks the ones before it rather than letting memory
+               grow. The trie is only changed while holding the write lock
+               passed in, a small chunk of words at a time, so queries that
+               take the read lock are never held up for long. Each stage keeps
+               a count of the items it has handled, used to report the lag and
+               the throughput of every stage. Anything a stage throws stops
+               the other stages and is thrown again by awaitCompletion.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class IngestionPipeline
+{
+    // marks the end of the stream in the line and word queues
+    private static final String END = new String("end of stream");
+    // marks the end of the stream in the batch queue
+    private static final Map<String, Integer> END_BATCH = new HashMap<>();
+
+    private final AutoCompletionTrie trie;
+    private final ReadWriteLock lock;
+    private final int batchSize;
+    private final long batchDelayNanos;
+    private final int applyChunk;
+
+    private final BlockingQueue<String> lines;
+    private final BlockingQueue<String> words;
+    private final BlockingQueue<Map<String, Integer>> batches;
+
+    private final AtomicLong linesRead = new AtomicLong();
+    private final AtomicLong wordsSplit = new AtomicLong();
+    private final AtomicLong wordsRejected = new AtomicLong();
+    private final AtomicLong wordsBatched = new AtomicLong();
+    private final AtomicLong batchesApplied = new AtomicLong();
+    private final AtomicLong updatesApplied = new AtomicLong();
+    private final AtomicLong wordsApplied = new AtomicLong();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile Throwable failure;
+    private long startNanos;
+
+    /**
+     * Creates a pipeline with a queue capacity of 1024, batches of up to
+     * 4096 different words flushed at least every 100ms and chunks of 256
+     * updates per write lock.
+     *
+     * @param trie - trie the words are added to
+     * @param lock - lock shared with the threads querying the trie
+     */
+    public IngestionPipeline(AutoCompletionTrie trie, ReadWriteLock lock)
+    {
+        this(trie, lock, 1024, 4096, 100, 256);
+    }
+
+    /**
+     * @param trie          - trie the words are added to
+     * @param lock          - lock shared with the threads querying the trie
+     * @param queueCapacity - number of items each queue can hold
+     * @param batchSize     - number of different words in a batch before it
+     *                        is passed on to be applied
+     * @param batchDelayMs  - longest time in milliseconds a word waits in a
+     *                        batch before the batch is passed on
+     * @param applyChunk    - number of words applied per hold of the write lock
+     * @throws IllegalArgumentException
+     */
+    public IngestionPipeline(AutoCompletionTrie trie, ReadWriteLock lock, int queueCapacity,
+                             int batchSize, long batchDelayMs, int applyChunk)
+            throws IllegalArgumentException
+    {
+        if (queueCapacity < 1 || batchSize < 1 || batchDelayMs < 1 || applyChunk < 1)
+        {
+            throw new IllegalArgumentException("Pipeline sizes must be at least 1!");
+        }
+        this.trie = trie;
+        this.lock = lock;
+        this.batchSize = batchSize;
+        this.batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(batchDelayMs);
+        this.applyChunk = applyChunk;
+        this.lines = new ArrayBlockingQueue<>(queueCapacity);
+        this.words = new ArrayBlockingQueue<>(queueCapacity);
+        this.batches = new ArrayBlockingQueue<>(Math.max(1, queueCapacity / 256));
+    }
+
+    /**
+     * Starts every stage reading from the source passed in. The pipeline
+     * finishes once the source reaches the end of the stream.
+     *
+     * @param source - stream of comma or space separated words
+     * @throws IllegalStateException
+     */
+    public synchronized void start(Reader source) throws IllegalStateException
+    {
+        if (!threads.isEmpty())
+        {
+            throw new IllegalStateException("Pipeline has already been started!");
+        }
+        startNanos = System.nanoTime();
+        BufferedReader reader = new BufferedReader(source);
+
+        threads.add(new Thread(stage(() -> read(reader)), "ingest-read"));
+        threads.add(new Thread(stage(this::split), "ingest-split"));
+        threads.add(new Thread(stage(this::aggregate), "ingest-aggregate"));
+        threads.add(new Thread(stage(this::apply), "ingest-apply"));
+        for (Thread thread : threads)
+        {
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Waits for every word read to be applied to the trie.
+     *
+     * @throws InterruptedException
+     * @throws IOException if reading the source failed
+     * @throws RuntimeException if a stage failed, stopping the others
+     * @throws Error if a stage failed, stopping the others
+     */
+    public void awaitCompletion() throws InterruptedException, IOException
+    {
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        Throwable cause = failure;
+        if (cause instanceof IOException)
+        {
+            throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException)
+        {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error)
+        {
+            throw (Error) cause;
+        }
+        if (cause != null)
+        {
+            throw new IllegalStateException("Pipeline stage failed!", cause);
+        }
+    }
+
+    /**
+     * Stops every stage without waiting for queued words to be applied.
+     */
+    public void stop()
+    {
+        for (Thread thread : threads)
+        {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Wraps the body of a stage so anything it throws is kept for
+     * awaitCompletion and stops the other stages, rather than ending its
+     * thread and leaving the others waiting on their queues for good.
+     */
+    private Runnable stage(Runnable body)
+    {
+        return () ->
+        {
+            try
+            {
+                body.run();
+            }
+            catch (Throwable e)
+            {
+                setFailure(e);
+                stop();
+            }
+        };
+    }
+
+    /**
+     * Keeps the first failure of any stage.
+     */
+    private synchronized void setFailure(Throwable e)
+    {
+        if (failure == null)
+        {
+            failure = e;
+        }
+    }
+
+    /**
+     * Reads the source one line at a time.
+     */
+    private void read(BufferedReader reader)
+    {
+        try
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lines.put(line);
+                linesRead.incrementAndGet();
+            }
+        }
+        catch (IOException e)
+        {
+            // the words read so far are still applied
+            setFailure(e);
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        putQuietly(lines, END);
+    }
+
+    /**
+     * Splits each line on spaces and commas in the same way as
+     * DictionaryFinder.readWordsFromCSV, dropping any word the trie can not
+     * hold.
+     */
+    private void split()
+    {
+        try
+        {
+            String line;
+            while ((line = lines.take()) != END)
+            {
+                int start = 0;
+                for (int i = 0; i <= line.length(); i++)
+                {
+                    if (i == line.length() || line.charAt(i) == ' ' || line.charAt(i) == ',')
+                    {
+                        String word = line.substring(start, i).trim().toLowerCase();
+                        start = i + 1;
+                        if (word.isEmpty())
+                        {
+                            continue;
+                        }
+                        if (Trie.isLetters(word))
+                        {
+                            words.put(word);
+                            wordsSplit.incrementAndGet();
+                        }
+                        else
+                        {
+                            wordsRejected.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        putQuietly(words, END);
+    }
+
+    /**
+     * Adds up the count of each word into a batch, passing the batch on
+     * once it holds batchSize different words or its oldest word has waited
+     * for the batch delay.
+     */
+    private void aggregate()
+    {
+        try
+        {
+            Map<String, Integer> batch = new HashMap<>();
+            long deadline = 0;
+
+            while (true)
+            {
+                String word = batch.isEmpty() ? words.take()
+                        : words.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (word == END)
+                {
+                    break;
+                }
+                if (word != null)
+                {
+                    if (batch.isEmpty())
+                    {
+                        deadline = System.nanoTime() + batchDelayNanos;
+                    }
+                    batch.merge(word, 1, Integer::sum);
+                    wordsBatched.incrementAndGet();
+                }
+                if (batch.size() >= batchSize || (word == null && !batch.isEmpty())
+                        || System.nanoTime() - deadline >= 0)
+                {
+                    batches.put(batch);
+                    batch = new HashMap<>();
+                }
+            }
+            if (!batch.isEmpty())
+            {
+                batches.put(batch);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        putQuietly(batches, END_BATCH);
+    }
+
+    /**
+     * Applies each batch to the trie, holding the write lock for at most
+     * applyChunk words at a time.
+     */
+    private void apply()
+    {
+        try
+        {
+            Map<String, Integer> batch;
+            while ((batch = batches.take()) != END_BATCH)
+            {
+                Iterator<Map.Entry<String, Integer>> iterator = batch.entrySet().iterator();
+                while (iterator.hasNext())
+                {
+                    long applied = 0;
+                    lock.writeLock().lock();
+                    try
+                    {
+                        for (int i = 0; i < applyChunk && iterator.hasNext(); i++)
+                        {
+                            Map.Entry<String, Integer> entry = iterator.next();
+                            trie.add(entry.getKey(), entry.getValue());
+                            applied += entry.getValue();
+                            updatesApplied.incrementAndGet();
+                        }
+                    }
+                    finally
+                    {
+                        lock.writeLock().unlock();
+                    }
+                    wordsApplied.addAndGet(applied);
+                }
+                batchesApplied.incrementAndGet();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> void putQuietly(BlockingQueue<T> queue, T item)
+    {
+        try
+        {
+            queue.put(item);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the number of words split from the stream that have not been
+     * applied to the trie yet
+     */
+    public long getLag()
+    {
+        return wordsSplit.get() - wordsApplied.get();
+    }
+
+    /**
+     * @return the number of words applied to the trie so far
+     */
+    public long getWordsApplied()
+    {
+        return wordsApplied.get();
+    }
+
+    /**
+     * @return the number of words dropped for having characters outside a-z
+     */
+    public long getWordsRejected()
+    {
+        return wordsRejected.get();
+    }
+
+    /**
+     * @return a report of the items each stage has handled, its throughput
+     * per second, the queue sizes and the lag
+     */
+    public String report()
+    {
+        double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+        StringBuilder sb = new StringBuilder();
+        appendStage(sb, "read", linesRead.get(), "lines", seconds, lines.size());
+        appendStage(sb, "split", wordsSplit.get(), "words", seconds, words.size());
+        appendStage(sb, "aggregate", wordsBatched.get(), "words", seconds, batches.size());
+        appendStage(sb, "apply", wordsApplied.get(), "words", seconds, 0);
+        sb.append("rejected ").append(wordsRejected.get()).append(" words, ")
+                .append(batchesApplied.get()).append(" batches applied as ")
+                .append(updatesApplied.get()).append(" trie updates, lag ")
+                .append(getLag()).append(" words\n");
+        return sb.toString();
+    }
+
+    private static void appendStage(StringBuilder sb, String stage, long count, String unit,
+                                    double seconds, int queued)
+    {
+        sb.append(String.format("%-10s %12d %s %12.0f/s  %6d queued%n",
+                stage, count, unit, count / seconds, queued));
+    }
+
+    /**
+     * Feeds stdin, or the file named in the arguments, into a new
+     * AutoCompletionTrie, printing a report every second.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        IngestionPipeline pipeline = new IngestionPipeline(trie, lock);
+
+        Reader source = args.length > 0 ? new FileReader(args[0]) : new InputStreamReader(System.in);
+        pipeline.start(source);
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> System.out.print(pipeline.report()), 1, 1,
+                TimeUnit.SECONDS);
+        pipeline.awaitCompletion();
+        reporter.shutdownNow();
+
+        System.out.print(pipeline.report());
+        lock.readLock().lock();
+        try
+        {
+            System.out.println("Top three words: " + trie.getTopWords(3, CompletionScorer.COUNT));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,458 @@
+/*******************************************************************************
+ File        : LazyAutoCompletionTrie.java
+
+ Description : LazyAutoCompletionTrie is an AutoCompletionTrie over a binary
+               dictionary that only builds the nodes that are used. Opening
+               it memory maps the file and reads it once, building just the
+               top levels of the trie, down to a fixed depth, with the counts
+               of every word below each node. Each node at that depth notes
+               where the sorted words below it start in the file, the
+               characters the first of them shares with the word before, and
+               how many there are. Its subtree is only built from that range
+               of the file the first time its offspring are asked for, under
+               a lock so two queries arriving at once build it only once.
+               The subtree is published as a whole, so a query never sees
+               one part built. Subtrees not used for a while can be dropped
+               again and are built again if asked for. Every search of
+               AutoCompletionTrie works unchanged, but the trie is read only.
+               Anything that walks the whole trie, such as getAllWords or
+               getNodeCount, builds every subtree.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+public class LazyAutoCompletionTrie extends AutoCompletionTrie
+{
+    private final List<LazyNode> frontier;
+
+    private LazyAutoCompletionTrie(AutoCompletionTrieNode root, int trieWordCount,
+                                   List<LazyNode> frontier)
+    {
+        super(root, trieWordCount);
+        this.frontier = frontier;
+    }
+
+    /**
+     * Opens a binary dictionary written by DictionaryFinder.saveToBinaryFile
+     * or ExternalDictionaryBuilder, building only the levels of the trie
+     * down to the depth passed in. Entries with characters outside a-z are
+     * skipped, as in AutoCompletionTrie.loadBinaryDictionary.
+     *
+     * @param fileName - name of a binary dictionary file
+     * @param depth    - depth of the nodes whose subtrees are built lazily
+     * @return LazyAutoCompletionTrie over the words in the file
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public static LazyAutoCompletionTrie open(String fileName, int depth)
+            throws IOException, IllegalArgumentException
+    {
+        if (depth < 0)
+        {
+            throw new IllegalArgumentException("Depth can not be negative!");
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        List<LazyNode> frontier = new ArrayList<>();
+        AutoCompletionTrieNode root;
+        if (depth == 0)
+        {
+            root = new LazyNode(buffer, 0);
+            frontier.add((LazyNode) root);
+        }
+        else
+        {
+            root = new AutoCompletionTrieNode();
+        }
+        AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[depth + 1];
+        path[0] = root;
+        // deepest position on the path that is valid for the last word
+        int valid = 0;
+        long total = 0;
+
+        BinaryDictionary.Cursor cursor = new BinaryDictionary.Cursor(buffer.duplicate());
+        while (cursor.next())
+        {
+            char[] word = cursor.getChars();
+            int length = cursor.getLength();
+            int count = cursor.getCount();
+            if (count == 0 || !Trie.isLetters(word, length))
+            {
+                // no nodes for it, but the next word is coded against it
+                valid = Math.min(valid, cursor.getSharedLength());
+                continue;
+            }
+
+            // nodes up to the shared prefix are already on the path
+            int top = Math.min(length, depth);
+            for (int i = Math.min(Math.min(cursor.getSharedLength(), valid), top); i < top; i++)
+            {
+                AutoCompletionTrieNode[] offspring = path[i].getOffspringArray();
+                int index = letter(word[i]);
+                if (offspring[index] == null)
+                {
+                    if (i + 1 == depth)
+                    {
+                        LazyNode node = new LazyNode(buffer, depth);
+                        node.setPrefix(word[i]);
+                        frontier.add(node);
+                        offspring[index] = node;
+                    }
+                    else
+                    {
+                        offspring[index] = new AutoCompletionTrieNode(word[i]);
+                    }
+                }
+                path[i + 1] = offspring[index];
+            }
+            valid = top;
+
+            for (int i = 0; i <= top; i++)
+            {
+                path[i].addToTotalCount(count);
+                path[i].updateMaxCount(count);
+                path[i].addToWordCount(1);
+            }
+            if (length <= depth)
+            {
+                path[length].setIsWord(true);
+                path[length].addCount(count);
+            }
+            else
+            {
+                ((LazyNode) path[depth]).note(cursor);
+            }
+            total += count;
+        }
+
+        for (LazyNode node : frontier)
+        {
+            node.sealIfEmpty();
+        }
+        return new LazyAutoCompletionTrie(root, (int) Math.min(total, Integer.MAX_VALUE),
+                frontier);
+    }
+
+    private static int letter(char c) throws IllegalArgumentException
+    {
+        int index = c - 'a';
+        if (index < 0 || index > 25)
+        {
+            throw new IllegalArgumentException("Enter a lowercase A-Z character only!");
+        }
+        return index;
+    }
+
+    /**
+     * Drops the subtrees that have not been used for a while, to be built
+     * again if they are asked for. Queries already walking a subtree carry
+     * on with it.
+     *
+     * @param idleNanos - time a subtree must have gone unused to be dropped
+     * @return the number of subtrees dropped
+     */
+    public int dropColdSubtries(long idleNanos)
+    {
+        long now = System.nanoTime();
+        int dropped = 0;
+        for (LazyNode node : frontier)
+        {
+            if (node.drop(now - idleNanos))
+            {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * @return the number of subtrees built and not dropped
+     */
+    public int getMaterializedCount()
+    {
+        int built = 0;
+        for (LazyNode node : frontier)
+        {
+            if (node.isMaterialized())
+            {
+                built++;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * @return the number of subtrees that can be built lazily
+     */
+    public int getSubtrieCount()
+    {
+        int lazy = 0;
+        for (LazyNode node : frontier)
+        {
+            if (node.entries > 0)
+            {
+                lazy++;
+            }
+        }
+        return lazy;
+    }
+
+    /**
+     * The trie is read only.
+     *
+     * @throws UnsupportedOperationException
+     */
+    @Override
+    boolean add(String key, int count, long totalDelta) throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("LazyAutoCompletionTrie is read only");
+    }
+
+    /**
+     * The trie is read only.
+     *
+     * @throws UnsupportedOperationException
+     */
+    @Override
+    public int addAll(List<String> words) throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("LazyAutoCompletionTrie is read only");
+    }
+
+    /**
+     * The trie is read only.
+     *
+     * @throws UnsupportedOperationException
+     */
+    @Override
+    void addToTotals(String key, long delta) throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("LazyAutoCompletionTrie is read only");
+    }
+
+    /**
+     * The trie is read only; dropColdSubtries frees memory instead.
+     *
+     * @throws UnsupportedOperationException
+     */
+    @Override
+    int evictBelow(int floor, ObjIntConsumer<String> removed) throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("LazyAutoCompletionTrie is read only");
+    }
+
+    /**
+     * A node whose subtree is built from its range of the file the first
+     * time its offspring are asked for. The statistics of the node itself
+     * are worked out when the file is opened.
+     */
+    private static class LazyNode extends AutoCompletionTrieNode
+    {
+        private final ByteBuffer buffer;
+        private final int depth;
+        // first entry below the node, what it shares with the entry before
+        // it, and the number of entries
+        private int start = -1;
+        private String before;
+        private int entries = 0;
+
+        private volatile AutoCompletionTrieNode[] offspring;
+        private volatile long lastUsed;
+
+        private LazyNode(ByteBuffer buffer, int depth)
+        {
+            this.buffer = buffer;
+            this.depth = depth;
+        }
+
+        /**
+         * Notes an entry below the node while the file is opened.
+         */
+        private void note(BinaryDictionary.Cursor cursor)
+        {
+            if (start < 0)
+            {
+                start = cursor.getOffset();
+                before = new String(cursor.getChars(), 0, cursor.getSharedLength());
+            }
+            entries++;
+        }
+
+        /**
+         * Gives a node with no words below it its empty offspring for good.
+         */
+        private void sealIfEmpty()
+        {
+            if (entries == 0)
+            {
+                offspring = new AutoCompletionTrieNode[26];
+            }
+        }
+
+        @Override
+        public AutoCompletionTrieNode[] getOffspringArray()
+        {
+            AutoCompletionTrieNode[] built = offspring;
+            if (built == null)
+            {
+                built = materialize();
+            }
+            lastUsed = System.nanoTime();
+            return built;
+        }
+
+        @Override
+        public AutoCompletionTrieNode getOffspring(char x) throws IllegalArgumentException
+        {
+            return getOffspringArray()[letter(x)];
+        }
+
+        /**
+         * The trie is read only.
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public boolean setOffspring(char x) throws UnsupportedOperationException
+        {
+            throw new UnsupportedOperationException("LazyAutoCompletionTrie is read only");
+        }
+
+        private boolean isMaterialized()
+        {
+            return entries > 0 && offspring != null;
+        }
+
+        private synchronized boolean drop(long usedBefore)
+        {
+            if (!isMaterialized() || lastUsed - usedBefore > 0)
+            {
+                return false;
+            }
+            offspring = null;
+            return true;
+        }
+
+        /**
+         * Builds the subtree from the range of the file, then publishes it.
+         */
+        private synchronized AutoCompletionTrieNode[] materialize()
+        {
+            if (offspring != null)
+            {
+                // built by another query while this one waited
+                return offspring;
+            }
+
+            AutoCompletionTrieNode[] built = new AutoCompletionTrieNode[26];
+            AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[depth + 16];
+            // deepest position on the path that is valid for the last word
+            int valid = depth;
+            BinaryDictionary.Cursor cursor =
+                    new BinaryDictionary.Cursor(buffer.duplicate(), start, before);
+            try
+            {
+                for (int e = 0; e < entries && cursor.next(); )
+                {
+                    char[] word = cursor.getChars();
+                    int length = cursor.getLength();
+                    int count = cursor.getCount();
+                    if (count == 0 || !Trie.isLetters(word, length))
+                    {
+                        // not noted when the file was opened
+                        valid = Math.min(valid, cursor.getSharedLength());
+                        continue;
+                    }
+                    e++;
+                    if (path.length <= length)
+                    {
+                        path = Arrays.copyOf(path, Math.max(length + 1, path.length * 2));
+                    }
+
+                    for (int i = Math.max(depth, Math.min(cursor.getSharedLength(), valid));
+                         i < length; i++)
+                    {
+                        AutoCompletionTrieNode[] children =
+                                i == depth ? built : path[i].getOffspringArray();
+                        int index = letter(word[i]);
+                        if (children[index] == null)
+                        {
+                            children[index] = new AutoCompletionTrieNode(word[i]);
+                        }
+                        path[i + 1] = children[index];
+                    }
+                    valid = length;
+
+                    // this node's own statistics already count the word
+                    path[length].setIsWord(true);
+                    path[length].addCount(count);
+                    for (int i = depth + 1; i <= length; i++)
+                    {
+                        path[i].addToTotalCount(count);
+                        path[i].updateMaxCount(count);
+                        path[i].addToWordCount(1);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            offspring = built;
+            return built;
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        java.io.File file = java.io.File.createTempFile("lotr", ".bin");
+        file.deleteOnExit();
+        new DictionaryFinder(DictionaryFinder.readWordsFromCSV("lotr.csv"))
+                .saveToBinaryFile(file.getPath());
+
+        long start = System.nanoTime();
+        AutoCompletionTrie eager = AutoCompletionTrie.loadBinaryDictionary(file.getPath());
+        CompletionResults expected = new CompletionResults(3);
+        eager.getTopCompletions("fro", 3, CompletionScorer.COUNT, expected);
+        System.out.println("Eager load and first query: " + (System.nanoTime() - start) / 1000
+                + "us");
+
+        start = System.nanoTime();
+        LazyAutoCompletionTrie lazy = open(file.getPath(), 2);
+        CompletionResults actual = new CompletionResults(3);
+        lazy.getTopCompletions("fro", 3, CompletionScorer.COUNT, actual);
+        System.out.println("Lazy open and first query:  " + (System.nanoTime() - start) / 1000
+                + "us, " + lazy.getMaterializedCount() + " of " + lazy.getSubtrieCount()
+                + " subtries built");
+        System.out.print(actual);
+
+        boolean same = expected.toString().equals(actual.toString());
+        for (String query : DictionaryFinder.loadPrefixes("lotrQueries.csv"))
+        {
+            eager.getTopCompletions(query, 3, CompletionScorer.COUNT, expected);
+            lazy.getTopCompletions(query, 3, CompletionScorer.COUNT, actual);
+            same &= expected.toString().equals(actual.toString());
+        }
+        System.out.println("Same as eager: " + same + ", " + lazy.getMaterializedCount()
+                + " subtries built");
+        System.out.println("Dropped " + lazy.dropColdSubtries(0) + ", "
+                + lazy.getMaterializedCount() + " left built");
+    }
+}
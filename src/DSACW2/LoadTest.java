@@ -0,0 +1,441 @@
+/*******************************************************************************
+ File        : LoadTest.java
+
+ Description : LoadTest measures the whole completion flow under traffic that
+               looks like real use rather than timing one method at a time.
+               It makes a synthetic corpus whose word frequencies follow a
+               Zipf distribution, so a few words are very common and most are
+               rare, builds an AutoCompletionTrie from it, then has a number
+               of client threads send queries for the top three words and
+               write each answer as a csv line. The words queried follow the
+               same Zipf distribution and the length of each prefix is drawn
+               from the lengths of the queries in a query log such as
+               lotrQueries.csv. For each phase the throughput, the garbage
+               collections and the peak heap are recorded, and for the query
+               phase the 50th, 99th and 99.9th percentile latency. The results
+               are written to a JSON file so runs can be compared by a script.
+
+               Usage: LoadTest [key=value ...] with the keys words, tokens,
+               exponent, queries, clients, warmup, seed, log and out.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class LoadTest
+{
+    private final int words;
+    private final long tokens;
+    private final double exponent;
+    private final int queries;
+    private final int clients;
+    private final int warmup;
+    private final long seed;
+    private final String queryLog;
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    /**
+     * @param words    - number of different words in the corpus
+     * @param tokens   - number of words in the corpus
+     * @param exponent - exponent of the Zipf distribution, about 1 for text
+     * @param queries  - number of queries sent by each client
+     * @param clients  - number of client threads
+     * @param warmup   - queries each client sends before timing starts
+     * @param seed     - seed of the random generators
+     * @param queryLog - file of queries, one per line, giving prefix lengths
+     */
+    public LoadTest(int words, long tokens, double exponent, int queries, int clients,
+                    int warmup, long seed, String queryLog)
+    {
+        this.words = words;
+        this.tokens = tokens;
+        this.exponent = exponent;
+        this.queries = queries;
+        this.clients = clients;
+        this.warmup = warmup;
+        this.seed = seed;
+        this.queryLog = queryLog;
+    }
+
+    /**
+     * Draws ranks from a Zipf distribution, rank r being drawn with
+     * probability proportional to 1 / r^s, by a binary search of the
+     * cumulative probabilities.
+     */
+    static class ZipfGenerator
+    {
+        private final double[] cumulative;
+
+        /**
+         * @param n        - number of ranks
+         * @param exponent - exponent s of the distribution
+         */
+        ZipfGenerator(int n, double exponent)
+        {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int r = 0; r < n; r++)
+            {
+                sum += 1 / Math.pow(r + 1, exponent);
+                cumulative[r] = sum;
+            }
+            for (int r = 0; r < n; r++)
+            {
+                cumulative[r] /= sum;
+            }
+        }
+
+        /**
+         * @param random - source of randomness
+         * @return a rank from 0, the most common, up to n - 1
+         */
+        int next(Random random)
+        {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = i < 0 ? -i - 1 : i;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+
+    /**
+     * Makes a list of different random words, lengths between 1 and 12
+     * weighted towards the middle, the position in the list being the rank.
+     *
+     * @param n      - number of words
+     * @param random - source of randomness
+     * @return array of n different words
+     */
+    static String[] generateVocabulary(int n, Random random)
+    {
+        Set<String> seen = new HashSet<>();
+        String[] vocabulary = new String[n];
+        char[] chars = new char[12];
+        int i = 0;
+        while (i < n)
+        {
+            int length = 1 + random.nextInt(6) + random.nextInt(6);
+            for (int j = 0; j < length; j++)
+            {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            String word = new String(chars, 0, length);
+            if (seen.add(word))
+            {
+                vocabulary[i++] = word;
+            }
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Reads the lengths of the queries in a log.
+     *
+     * @param fileName - file of queries, one per line
+     * @return array of the lengths, one per query
+     * @throws IOException
+     */
+    static int[] readPrefixLengths(String fileName) throws IOException
+    {
+        List<Integer> lengths = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (!line.isEmpty())
+                {
+                    lengths.add(line.length());
+                }
+            }
+        }
+        if (lengths.isEmpty())
+        {
+            throw new IOException("No queries in " + fileName);
+        }
+        int[] array = new int[lengths.size()];
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = lengths.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Runs the build and the query phases.
+     *
+     * @return map of the results, in the order they are written
+     * @throws Exception
+     */
+    public Map<String, Object> run() throws Exception
+    {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("words", words);
+        config.put("tokens", tokens);
+        config.put("exponent", exponent);
+        config.put("queries", queries);
+        config.put("clients", clients);
+        config.put("warmup", warmup);
+        config.put("seed", seed);
+        config.put("log", queryLog);
+        report.put("config", config);
+
+        Random random = new Random(seed);
+        String[] vocabulary = generateVocabulary(words, random);
+        ZipfGenerator zipf = new ZipfGenerator(words, exponent);
+        int[] prefixLengths = readPrefixLengths(queryLog);
+
+        AutoCompletionTrie trie = build(vocabulary, zipf, random);
+        query(trie, vocabulary, zipf, prefixLengths);
+        return report;
+    }
+
+    private AutoCompletionTrie build(String[] vocabulary, ZipfGenerator zipf, Random random)
+    {
+        // the trie takes one writer, so the corpus is added by a single thread
+        PhaseStats stats = new PhaseStats();
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        for (long i = 0; i < tokens; i++)
+        {
+            trie.add(vocabulary[zipf.next(random)]);
+        }
+        Map<String, Object> phase = stats.finish(tokens);
+        phase.put("distinctWords", trie.getDistinctWordCount());
+        report.put("build", phase);
+        return trie;
+    }
+
+    private void query(AutoCompletionTrie trie, String[] vocabulary, ZipfGenerator zipf,
+                       int[] prefixLengths) throws Exception
+    {
+        // queries are made up front so the generators are not timed
+        String[][] streams = new String[clients][warmup + queries];
+        Random random = new Random(seed + 1);
+        for (String[] stream : streams)
+        {
+            for (int i = 0; i < stream.length; i++)
+            {
+                String word = vocabulary[zipf.next(random)];
+                int length = prefixLengths[random.nextInt(prefixLengths.length)];
+                stream[i] = word.substring(0, Math.min(length, word.length()));
+            }
+        }
+
+        long[][] latencies = new long[clients][queries];
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CyclicBarrier start = new CyclicBarrier(clients + 1);
+        CyclicBarrier warm = new CyclicBarrier(clients + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++)
+        {
+            String[] stream = streams[c];
+            long[] latency = latencies[c];
+            futures.add(executor.submit(() ->
+            {
+                CompletionResults results = new CompletionResults(3);
+                OutputStream sink = OutputStream.nullOutputStream();
+                for (int i = 0; i < warmup; i++)
+                {
+                    answer(trie, stream[i], results, sink);
+                }
+                warm.await();
+                start.await();
+                for (int i = 0; i < queries; i++)
+                {
+                    long before = System.nanoTime();
+                    answer(trie, stream[warmup + i], results, sink);
+                    latency[i] = System.nanoTime() - before;
+                }
+                return null;
+            }));
+        }
+
+        warm.await();
+        PhaseStats stats = new PhaseStats();
+        start.await();
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        Map<String, Object> phase = stats.finish((long) clients * queries);
+        executor.shutdown();
+
+        long[] all = new long[clients * queries];
+        for (int c = 0; c < clients; c++)
+        {
+            System.arraycopy(latencies[c], 0, all, c * queries, queries);
+        }
+        Arrays.sort(all);
+        phase.put("p50Micros", percentile(all, 0.50) / 1e3);
+        phase.put("p99Micros", percentile(all, 0.99) / 1e3);
+        phase.put("p999Micros", percentile(all, 0.999) / 1e3);
+        phase.put("maxMicros", (all.length == 0 ? 0 : all[all.length - 1]) / 1e3);
+        report.put("query", phase);
+    }
+
+    private static void answer(AutoCompletionTrie trie, String prefix,
+                               CompletionResults results, OutputStream sink) throws IOException
+    {
+        trie.getTopCompletions(prefix, 3, CompletionScorer.COUNT, results);
+        results.writeCsvLine(sink);
+    }
+
+    static long percentile(long[] sorted, double p)
+    {
+        if (sorted.length == 0)
+        {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Time, collections and peak heap of one phase, from when it is made
+     * until finish is called.
+     */
+    private static class PhaseStats
+    {
+        private final long startNanos;
+        private final long startCollections;
+        private final long startCollectionMillis;
+
+        private PhaseStats()
+        {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            {
+                if (pool.getType() == MemoryType.HEAP)
+                {
+                    pool.resetPeakUsage();
+                }
+            }
+            startCollections = collections();
+            startCollectionMillis = collectionMillis();
+            startNanos = System.nanoTime();
+        }
+
+        private Map<String, Object> finish(long operations)
+        {
+            long nanos = System.nanoTime() - startNanos;
+            Map<String, Object> phase = new LinkedHashMap<>();
+            phase.put("operations", operations);
+            phase.put("seconds", nanos / 1e9);
+            phase.put("throughputPerSecond", nanos == 0 ? 0 : operations * 1e9 / nanos);
+            phase.put("gcCount", collections() - startCollections);
+            phase.put("gcMillis", collectionMillis() - startCollectionMillis);
+
+            // each pool peaks at its own time, so the sum is an upper bound
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            {
+                if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            phase.put("peakHeapBytes", peak);
+            return phase;
+        }
+
+        private static long collections()
+        {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            {
+                count += Math.max(0, gc.getCollectionCount());
+            }
+            return count;
+        }
+
+        private static long collectionMillis()
+        {
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            {
+                millis += Math.max(0, gc.getCollectionTime());
+            }
+            return millis;
+        }
+    }
+
+    /**
+     * Writes a map of numbers, strings and nested maps as JSON.
+     *
+     * @param map    - map to write
+     * @param sb     - StringBuilder to write to
+     * @param indent - spaces before each key
+     */
+    static void toJson(Map<String, Object> map, StringBuilder sb, int indent)
+    {
+        sb.append("{\n");
+        Iterator<Map.Entry<String, Object>> entries = map.entrySet().iterator();
+        while (entries.hasNext())
+        {
+            Map.Entry<String, Object> entry = entries.next();
+            sb.append(" ".repeat(indent + 2)).append('"').append(entry.getKey()).append("\": ");
+            Object value = entry.getValue();
+            if (value instanceof Map)
+            {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> nested = (Map<String, Object>) value;
+                toJson(nested, sb, indent + 2);
+            }
+            else if (value instanceof Number)
+            {
+                sb.append(value);
+            }
+            else
+            {
+                sb.append('"').append(String.valueOf(value).replace("\\", "\\\\")
+                        .replace("\"", "\\\"")).append('"');
+            }
+            sb.append(entries.hasNext() ? ",\n" : "\n");
+        }
+        sb.append(" ".repeat(indent)).append('}');
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args)
+        {
+            int equals = arg.indexOf('=');
+            if (equals < 0)
+            {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+
+        LoadTest test = new LoadTest(
+                Integer.parseInt(options.getOrDefault("words", "50000")),
+                Long.parseLong(options.getOrDefault("tokens", "2000000")),
+                Double.parseDouble(options.getOrDefault("exponent", "1.0")),
+                Integer.parseInt(options.getOrDefault("queries", "100000")),
+                Integer.parseInt(options.getOrDefault("clients", "4")),
+                Integer.parseInt(options.getOrDefault("warmup", "20000")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                options.getOrDefault("log", "lotrQueries.csv"));
+
+        StringBuilder json = new StringBuilder();
+        toJson(test.run(), json, 0);
+        json.append('\n');
+
+        String out = options.getOrDefault("out", "loadTest.json");
+        try (Writer writer = new FileWriter(out))
+        {
+            writer.write(json.toString());
+        }
+        System.out.print(json);
+    }
+}
@@ -0,0 +1,489 @@
+/*******************************************************************************
+ File        : LoudsTrie.java
+
+ Description : LoudsTrie is a read only copy of a Trie or AutoCompletionTrie
+               in as little memory as possible, for serving replicas. The
+               nodes are numbered in breadth first order and the shape of the
+               trie is stored as a LOUDS bit vector, where every node writes a
+               one for each child followed by a zero, about two bits per
+               node. The children of a node and the parent of a node are
+               found with rank and select on those bits instead of pointers.
+               The label of each node is one byte, the word flags are one bit
+               per node and the counts are packed into only as many bits as
+               the largest count needs. The largest count below each node is
+               packed the same way so the top words search can skip branches.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+public class LoudsTrie
+{
+    private final int nodeCount;
+    private final int maxDepth;
+    private final BitVector louds;
+    private final byte[] labels;
+    private final BitVector isWord;
+    // count of each word, indexed by the rank of the node among the words
+    private final PackedArray counts;
+    // largest count below each node
+    private final PackedArray maxCounts;
+
+    /**
+     * Copies an AutoCompletionTrie with its counts.
+     *
+     * @param trie - trie to copy
+     * @return LoudsTrie holding the same words and counts
+     */
+    public static LoudsTrie of(AutoCompletionTrie trie)
+    {
+        return new LoudsTrie(trie.getTrieNode(), AutoCompletionTrieNode::getOffspringArray,
+                AutoCompletionTrieNode::getIsWord, AutoCompletionTrieNode::getCount);
+    }
+
+    /**
+     * Copies a Trie, giving every word a count of 1.
+     *
+     * @param trie - trie to copy
+     * @return LoudsTrie holding the same words
+     */
+    public static LoudsTrie of(Trie trie)
+    {
+        return new LoudsTrie(trie.getTrieNode(), TrieNode::getOffspringArray,
+                TrieNode::getIsWord, node -> node.getIsWord() ? 1 : 0);
+    }
+
+    private <N> LoudsTrie(N root, Function<N, N[]> offspring, Predicate<N> word,
+                          ToIntFunction<N> count)
+    {
+        // first pass to size everything and find the largest count
+        List<N> order = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        order.add(root);
+        depths.add(0);
+        int words = 0;
+        int largest = 0;
+        int deepest = 0;
+        for (int i = 0; i < order.size(); i++)
+        {
+            N node = order.get(i);
+            if (word.test(node))
+            {
+                words++;
+                largest = Math.max(largest, count.applyAsInt(node));
+            }
+            deepest = Math.max(deepest, depths.get(i));
+            for (N child : offspring.apply(node))
+            {
+                if (child != null)
+                {
+                    order.add(child);
+                    depths.add(depths.get(i) + 1);
+                }
+            }
+        }
+
+        nodeCount = order.size();
+        maxDepth = deepest;
+        louds = new BitVector(2L * nodeCount + 1);
+        labels = new byte[nodeCount];
+        isWord = new BitVector(nodeCount);
+        counts = new PackedArray(words, largest);
+        maxCounts = new PackedArray(nodeCount, largest);
+
+        // the root is the only child of an imaginary super root
+        louds.append(true);
+        louds.append(false);
+        int nextId = 1;
+        int wordIndex = 0;
+        for (int id = 0; id < nodeCount; id++)
+        {
+            N node = order.get(id);
+            N[] children = offspring.apply(node);
+            for (int c = 0; c < children.length; c++)
+            {
+                if (children[c] != null)
+                {
+                    louds.append(true);
+                    labels[nextId++] = (byte) ('a' + c);
+                }
+            }
+            louds.append(false);
+
+            isWord.append(word.test(node));
+            if (word.test(node))
+            {
+                counts.set(wordIndex++, count.applyAsInt(node));
+            }
+        }
+        louds.finish();
+        isWord.finish();
+
+        // children have higher ids, so a backwards pass fills the maximums
+        for (int id = nodeCount - 1; id >= 0; id--)
+        {
+            int max = isWord.get(id) ? getWordCount(id) : 0;
+            int first = firstChild(id);
+            for (int child = first; child < first + degree(id); child++)
+            {
+                max = Math.max(max, maxCounts.get(child));
+            }
+            maxCounts.set(id, max);
+        }
+    }
+
+    /**
+     * @param key - word to search for
+     * @return true if the word is in the trie; false otherwise
+     */
+    public boolean contains(String key)
+    {
+        int node = find(key);
+        return node >= 0 && isWord.get(node);
+    }
+
+    /**
+     * @param key - word to search for
+     * @return the count of the word, 0 if it is not in the trie
+     */
+    public int getCount(String key)
+    {
+        int node = find(key);
+        return node >= 0 && isWord.get(node) ? getWordCount(node) : 0;
+    }
+
+    /**
+     * @param prefix - characters to follow from the root
+     * @return the id of the node reached by the prefix, or -1 if none
+     */
+    public int find(String prefix)
+    {
+        int node = 0;
+        for (int i = 0; i < prefix.length() && node >= 0; i++)
+        {
+            node = child(node, prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Finds the words starting with the prefix with the highest counts,
+     * shortest first and then alphabetically for equal counts. The search
+     * goes depth first with a stack as deep as the longest word and keeps
+     * only the best k words, skipping any branch whose largest count can not
+     * beat the k-th word.
+     *
+     * @param prefix - prefix the words must start with
+     * @param k      - maximum number of words to return
+     * @return List, the best k words including the prefix
+     */
+    public List<String> getTopWords(String prefix, int k)
+    {
+        List<String> words = new ArrayList<>();
+        int start = find(prefix);
+        if (start < 0 || k < 1)
+        {
+            return words;
+        }
+
+        // min heap of the best words found, worst word on top
+        int[] heapNodes = new int[k];
+        int[] heapCounts = new int[k];
+        int[] heapDepths = new int[k];
+        int heapSize = 0;
+
+        int[] stackNext = new int[maxDepth + 1];
+        int[] stackEnd = new int[maxDepth + 1];
+        int top = 0;
+        stackNext[0] = firstChild(start);
+        stackEnd[0] = stackNext[0] + degree(start);
+        heapSize = visit(start, 0, heapNodes, heapCounts, heapDepths, heapSize);
+
+        while (top >= 0)
+        {
+            int child = stackNext[top];
+            if (child >= stackEnd[top])
+            {
+                top--;
+                continue;
+            }
+            stackNext[top] = child + 1;
+
+            // a branch whose largest count is below the worst word is skipped
+            if (heapSize == k && maxCounts.get(child) < heapCounts[0])
+            {
+                continue;
+            }
+            if (isWord.get(child))
+            {
+                heapSize = visit(child, top + 1, heapNodes, heapCounts, heapDepths, heapSize);
+            }
+            top++;
+            stackNext[top] = firstChild(child);
+            stackEnd[top] = stackNext[top] + degree(child);
+        }
+
+        // take the words off the heap worst first
+        String[] sorted = new String[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--)
+        {
+            sorted[i] = prefix + wordBelow(start, heapNodes[0]);
+            heapNodes[0] = heapNodes[i];
+            heapCounts[0] = heapCounts[i];
+            heapDepths[0] = heapDepths[i];
+            siftDown(heapNodes, heapCounts, heapDepths, i);
+        }
+        words.addAll(Arrays.asList(sorted));
+        return words;
+    }
+
+    /**
+     * Offers a word node to the heap of best words.
+     *
+     * @return the new size of the heap
+     */
+    private int visit(int node, int depth, int[] nodes, int[] counts, int[] depths, int size)
+    {
+        if (!isWord.get(node))
+        {
+            return size;
+        }
+        int count = getWordCount(node);
+        if (size < nodes.length)
+        {
+            // sift up
+            int i = size;
+            while (i > 0 && isWorse(count, depth, node, counts[(i - 1) / 2], depths[(i - 1) / 2],
+                    nodes[(i - 1) / 2]))
+            {
+                int parent = (i - 1) / 2;
+                nodes[i] = nodes[parent];
+                counts[i] = counts[parent];
+                depths[i] = depths[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            counts[i] = count;
+            depths[i] = depth;
+            return size + 1;
+        }
+        if (isWorse(counts[0], depths[0], nodes[0], count, depth, node))
+        {
+            nodes[0] = node;
+            counts[0] = count;
+            depths[0] = depth;
+            siftDown(nodes, counts, depths, size);
+        }
+        return size;
+    }
+
+    private void siftDown(int[] nodes, int[] counts, int[] depths, int size)
+    {
+        int i = 0;
+        while (2 * i + 1 < size)
+        {
+            int child = 2 * i + 1;
+            if (child + 1 < size && isWorse(counts[child + 1], depths[child + 1], nodes[child + 1],
+                    counts[child], depths[child], nodes[child]))
+            {
+                child++;
+            }
+            if (!isWorse(counts[child], depths[child], nodes[child], counts[i], depths[i], nodes[i]))
+            {
+                break;
+            }
+            swap(nodes, i, child);
+            swap(counts, i, child);
+            swap(depths, i, child);
+            i = child;
+        }
+    }
+
+    /**
+     * Orders words by lowest count, then longest, then alphabetically last.
+     * Nodes at the same depth are numbered in alphabetical order, so the
+     * higher id is alphabetically later.
+     */
+    private static boolean isWorse(int countA, int depthA, int nodeA,
+                                   int countB, int depthB, int nodeB)
+    {
+        if (countA != countB)
+        {
+            return countA < countB;
+        }
+        if (depthA != depthB)
+        {
+            return depthA > depthB;
+        }
+        return nodeA > nodeB;
+    }
+
+    private static void swap(int[] array, int i, int j)
+    {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Builds the characters on the path from one node down to another by
+     * following parents up.
+     */
+    private String wordBelow(int ancestor, int node)
+    {
+        StringBuilder sb = new StringBuilder();
+        while (node != ancestor)
+        {
+            sb.append((char) labels[node]);
+            node = parent(node);
+        }
+        return sb.reverse().toString();
+    }
+
+    private int getWordCount(int node)
+    {
+        return counts.get((int) isWord.rank1(node));
+    }
+
+    /**
+     * @return the id of the first child of the node
+     */
+    private int firstChild(int node)
+    {
+        return (int) louds.rank1(louds.select0(node + 1) + 1);
+    }
+
+    /**
+     * @return the number of children of the node
+     */
+    private int degree(int node)
+    {
+        return (int) (louds.select0(node + 2) - louds.select0(node + 1) - 1);
+    }
+
+    /**
+     * @return the id of the child with the label, or -1 if there is none
+     */
+    private int child(int node, char c)
+    {
+        int low = firstChild(node);
+        int high = low + degree(node) - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c)
+            {
+                low = mid + 1;
+            }
+            else if (labels[mid] > c)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the id of the parent of the node, -1 for the root
+     */
+    private int parent(int node)
+    {
+        return (int) louds.rank0(louds.select1(node + 1)) - 1;
+    }
+
+    /**
+     * @return the number of nodes in the trie
+     */
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * @return the size of the encoded trie in bytes
+     */
+    public long getSizeInBytes()
+    {
+        return louds.getSizeInBytes() + labels.length + isWord.getSizeInBytes()
+                + counts.getSizeInBytes() + maxCounts.getSizeInBytes();
+    }
+
+    /**
+     * Numbers packed into as few bits each as the largest one needs.
+     */
+    private static class PackedArray
+    {
+        private final int bits;
+        private final long mask;
+        private final long[] words;
+
+        private PackedArray(int length, int largest)
+        {
+            this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(largest));
+            this.mask = (1L << bits) - 1;
+            this.words = new long[(int) (((long) length * bits + 63) >>> 6)];
+        }
+
+        private int get(int i)
+        {
+            long bit = (long) i * bits;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = words[word] >>> shift;
+            if (shift + bits > 64)
+            {
+                value |= words[word + 1] << (64 - shift);
+            }
+            return (int) (value & mask);
+        }
+
+        private void set(int i, int value)
+        {
+            long bit = (long) i * bits;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            words[word] = (words[word] & ~(mask << shift)) | ((value & mask) << shift);
+            if (shift + bits > 64)
+            {
+                int spill = 64 - shift;
+                words[word + 1] = (words[word + 1] & ~(mask >>> spill))
+                        | ((value & mask) >>> spill);
+            }
+        }
+
+        private long getSizeInBytes()
+        {
+            return 8L * words.length;
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+        LoudsTrie louds = LoudsTrie.of(trie);
+
+        System.out.println(louds.getNodeCount() + " nodes in " + louds.getSizeInBytes()
+                + " bytes, " + (8.0 * louds.getSizeInBytes() / louds.getNodeCount())
+                + " bits per node");
+        System.out.println("contains frodo: " + louds.contains("frodo") + ", count "
+                + louds.getCount("frodo"));
+        for (String query : DictionaryFinder.loadPrefixes("lotrQueries.csv"))
+        {
+            System.out.println(query + ": " + louds.getTopWords(query, 3) + " "
+                    + trie.getTopWords(query, 3, CompletionScorer.COUNT));
+        }
+    }
+}
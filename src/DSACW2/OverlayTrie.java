@@ -0,0 +1,247 @@
+/*******************************************************************************
+ File        : OverlayTrie.java
+
+ Description : OverlayTrie gives one user personal completions without
+               copying the dictionary. It layers a small AutoCompletionTrie
+               of the user's own words over a global AutoCompletionTrie that
+               is shared by every user and never changed here. The count of a
+               word is its global count plus its count in the user's trie
+               times a weight, so the user's words are boosted and words only
+               the user has typed are suggested too. A top words query walks
+               both tries together, each step going to the same child of the
+               global node and of the user node, either of which may be
+               missing. The highest count below a pair of nodes is at most
+               the sum of the highest counts below each, which bounds the
+               branch for a best first search, so only the branches that can
+               hold a top word are expanded. Memory grows only with the
+               user's own words, not with the global dictionary.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.PriorityQueue;
+
+public class OverlayTrie
+{
+    private final AutoCompletionTrie global;
+    private final AutoCompletionTrie user = new AutoCompletionTrie();
+    private final int weight;
+
+    /**
+     * @param global - dictionary shared by every user, which must not be
+     *                 changed while overlays over it are in use
+     * @param weight - number of global counts each count of the user is worth
+     * @throws IllegalArgumentException
+     */
+    public OverlayTrie(AutoCompletionTrie global, int weight) throws IllegalArgumentException
+    {
+        if (weight < 1)
+        {
+            throw new IllegalArgumentException("Weight must be at least 1!");
+        }
+        this.global = global;
+        this.weight = weight;
+    }
+
+    /**
+     * Adds a word typed by the user once.
+     *
+     * @param word - word to add
+     * @return true if the user had not typed the word before; false otherwise
+     * @throws IllegalArgumentException
+     */
+    public boolean add(String word) throws IllegalArgumentException
+    {
+        return user.add(word);
+    }
+
+    /**
+     * Adds a word typed by the user a number of times.
+     *
+     * @param word  - word to add
+     * @param count - number of times to add the word, at least 1
+     * @return true if the user had not typed the word before; false otherwise
+     * @throws IllegalArgumentException
+     */
+    public boolean add(String word, int count) throws IllegalArgumentException
+    {
+        return user.add(word, count);
+    }
+
+    /**
+     * @param word - word to count
+     * @return the global count of the word plus its weighted count for the
+     * user, 0 if neither has the word
+     */
+    public int getCount(String word)
+    {
+        return combine(wordCount(global.findNode(word)), wordCount(user.findNode(word)));
+    }
+
+    private static int wordCount(AutoCompletionTrieNode node)
+    {
+        return node != null && node.getIsWord() ? node.getCount() : 0;
+    }
+
+    private int combine(int globalCount, int userCount)
+    {
+        return (int) Math.min(Integer.MAX_VALUE, globalCount + (long) weight * userCount);
+    }
+
+    /**
+     * Fills the results passed in with the top words starting with a prefix
+     * by their combined counts, the probabilities worked out against the
+     * combined totals.
+     *
+     * @param prefix  - prefix the words must start with
+     * @param k       - maximum number of words, 0 for no limit
+     * @param scorer  - scorer used to rank the words
+     * @param results - results to fill, emptied first
+     * @return true if any word starts with the prefix; false otherwise
+     */
+    public boolean getTopCompletions(String prefix, int k, CompletionScorer scorer,
+                                     CompletionResults results)
+    {
+        AutoCompletionTrieNode globalNode = global.findNode(prefix);
+        AutoCompletionTrieNode userNode = user.findNode(prefix);
+        if (globalNode == null && userNode == null)
+        {
+            results.clear(prefix, 0);
+            return false;
+        }
+
+        long total = (globalNode == null ? 0 : globalNode.getTotalCount())
+                + (userNode == null ? 0 : weight * userNode.getTotalCount());
+        results.clear(prefix, total);
+
+        PriorityQueue<Entry> queue = new PriorityQueue<>(SearchEntry::compare);
+        ScoreFloor floor = new ScoreFloor(k);
+        queue.add(new Entry(globalNode, userNode, null, '\0', 0,
+                scorer.score(maxCount(globalNode, userNode), prefix.length()), 0, false));
+        while (!queue.isEmpty() && (k <= 0 || results.size() < k))
+        {
+            Entry entry = queue.poll();
+            if (entry.isWord)
+            {
+                results.add(entry.getWord(), entry.count);
+                continue;
+            }
+            expand(entry, prefix.length(), scorer, queue, floor);
+        }
+        return true;
+    }
+
+    /**
+     * Queues the word of a pair of nodes, if either is a word, and every
+     * child of either node that could still beat the K-th best word found
+     * so far.
+     */
+    private void expand(Entry entry, int baseLength, CompletionScorer scorer,
+                        PriorityQueue<Entry> queue, ScoreFloor floor)
+    {
+        int length = baseLength + entry.depth;
+        int count = combine(wordCount(entry.global), wordCount(entry.user));
+        if (count > 0)
+        {
+            double score = scorer.score(count, length);
+            queue.add(new Entry(entry.global, entry.user, entry.parent, entry.label,
+                    entry.depth, score, count, true));
+            floor.raise(score);
+        }
+
+        AutoCompletionTrieNode[] globalOffspring =
+                entry.global == null ? null : entry.global.getOffspringArray();
+        AutoCompletionTrieNode[] userOffspring =
+                entry.user == null ? null : entry.user.getOffspringArray();
+        for (int i = 0; i < 26; i++)
+        {
+            AutoCompletionTrieNode globalChild = globalOffspring == null ? null : globalOffspring[i];
+            AutoCompletionTrieNode userChild = userOffspring == null ? null : userOffspring[i];
+            if (globalChild == null && userChild == null)
+            {
+                continue;
+            }
+            double bound = scorer.score(maxCount(globalChild, userChild), length + 1);
+
+            // a branch scoring below the K-th best word can never be returned
+            if (floor.excludes(bound))
+            {
+                continue;
+            }
+            queue.add(new Entry(globalChild, userChild, entry, (char) ('a' + i),
+                    entry.depth + 1, bound, 0, false));
+        }
+    }
+
+    /**
+     * @return the highest combined count any word below the pair of nodes
+     * can have
+     */
+    private int maxCount(AutoCompletionTrieNode globalNode, AutoCompletionTrieNode userNode)
+    {
+        return combine(globalNode == null ? 0 : globalNode.getMaxCount(),
+                userNode == null ? 0 : userNode.getMaxCount());
+    }
+
+    /**
+     * @return the trie of the user's own words
+     */
+    public AutoCompletionTrie getUserTrie()
+    {
+        return user;
+    }
+
+    /**
+     * @return the estimated bytes retained by the user's own words
+     */
+    public long getEstimatedSize()
+    {
+        return user.getEstimatedSize();
+    }
+
+    /**
+     * A pair of nodes still to be expanded, or a word ready to be returned
+     * with its combined count.
+     */
+    private static class Entry extends SearchEntry
+    {
+        private final AutoCompletionTrieNode global;
+        private final AutoCompletionTrieNode user;
+        private final int count;
+
+        private Entry(AutoCompletionTrieNode global, AutoCompletionTrieNode user,
+                      SearchEntry parent, char label, int depth, double score, int count,
+                      boolean isWord)
+        {
+            super(parent, label, depth, score, isWord);
+            this.global = global;
+            this.user = user;
+            this.count = count;
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie global = new AutoCompletionTrie();
+        global.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+
+        OverlayTrie fan = new OverlayTrie(global, 10);
+        fan.add("gandalf", 5);
+        fan.add("galadriel", 3);
+        fan.add("galumph");
+
+        CompletionResults results = new CompletionResults(3);
+        global.getTopCompletions("ga", 3, CompletionScorer.COUNT, results);
+        System.out.print("Global 'ga':\n" + results);
+        fan.getTopCompletions("ga", 3, CompletionScorer.COUNT, results);
+        System.out.print("User 'ga':\n" + results);
+        fan.getTopCompletions("galu", 3, CompletionScorer.COUNT, results);
+        System.out.print("User 'galu':\n" + results);
+        System.out.println("Global " + global.getEstimatedSize() + " bytes, user "
+                + fan.getEstimatedSize() + " bytes");
+    }
+}
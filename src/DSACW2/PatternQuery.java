@@ -0,0 +1,319 @@
+/*******************************************************************************
+ File        : PatternQuery.java
+
+ Description : PatternQuery finds the words in an AutoCompletionTrie that
+               match a pattern, for crossword style lookups. A pattern is
+               made of letters, '?' for any one letter, '*' for any run of
+               letters, including none, and classes such as [a-f] or [^aeiou]
+               for one letter from, or not from, a set. The pattern is turned
+               into a small automaton whose set of live states fits in a long,
+               and the trie is walked best first from a priority queue, each
+               branch carrying the states it could be in. A branch whose set
+               of states is empty can not match and is never expanded, so the
+               search only visits the part of the trie the pattern allows.
+               Words come out of a lazy stream highest count first, then
+               shortest and then alphabetical, so taking the first few words
+               stops the search early.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class PatternQuery
+{
+    private static final int ALPHABET = 26;
+    private static final int ALL_LETTERS = (1 << ALPHABET) - 1;
+    // one bit is kept for the state after the last part of the pattern
+    private static final int MAX_PARTS = 63;
+
+    private final String pattern;
+    // letters each part matches as a bit mask, and whether it is a '*'
+    private final int[] masks;
+    private final boolean[] stars;
+    private final long accept;
+    private final long start;
+
+    /**
+     * Turns a pattern into a query.
+     *
+     * @param pattern - pattern of letters, '?', '*' and classes like [a-f]
+     * @return PatternQuery for the pattern
+     * @throws IllegalArgumentException if the pattern is not valid
+     */
+    public static PatternQuery compile(String pattern) throws IllegalArgumentException
+    {
+        return new PatternQuery(pattern);
+    }
+
+    private PatternQuery(String pattern) throws IllegalArgumentException
+    {
+        this.pattern = pattern;
+        int[] masks = new int[pattern.length()];
+        boolean[] stars = new boolean[pattern.length()];
+        int parts = 0;
+
+        for (int i = 0; i < pattern.length(); i++)
+        {
+            char c = pattern.charAt(i);
+            if (c == '*')
+            {
+                // a run of stars matches the same as one
+                if (parts == 0 || !stars[parts - 1])
+                {
+                    stars[parts] = true;
+                    masks[parts++] = ALL_LETTERS;
+                }
+            }
+            else if (c == '?')
+            {
+                masks[parts++] = ALL_LETTERS;
+            }
+            else if (c == '[')
+            {
+                int close = pattern.indexOf(']', i + 1);
+                if (close < 0)
+                {
+                    throw new IllegalArgumentException("Unclosed '[' in pattern " + pattern);
+                }
+                masks[parts++] = parseClass(pattern, i + 1, close);
+                i = close;
+            }
+            else
+            {
+                masks[parts++] = 1 << letter(pattern, c);
+            }
+        }
+        if (parts > MAX_PARTS)
+        {
+            throw new IllegalArgumentException("Pattern has more than " + MAX_PARTS
+                    + " parts: " + pattern);
+        }
+
+        this.masks = Arrays.copyOf(masks, parts);
+        this.stars = Arrays.copyOf(stars, parts);
+        this.accept = 1L << parts;
+        this.start = closure(1L);
+    }
+
+    private static int parseClass(String pattern, int from, int to)
+    {
+        boolean negated = from < to && pattern.charAt(from) == '^';
+        if (negated)
+        {
+            from++;
+        }
+        if (from == to)
+        {
+            throw new IllegalArgumentException("Empty class in pattern " + pattern);
+        }
+
+        int mask = 0;
+        for (int i = from; i < to; i++)
+        {
+            int low = letter(pattern, pattern.charAt(i));
+            int high = low;
+            if (i + 2 < to && pattern.charAt(i + 1) == '-')
+            {
+                high = letter(pattern, pattern.charAt(i + 2));
+                if (high < low)
+                {
+                    throw new IllegalArgumentException("Backwards range in pattern " + pattern);
+                }
+                i += 2;
+            }
+            for (int c = low; c <= high; c++)
+            {
+                mask |= 1 << c;
+            }
+        }
+        return negated ? ~mask & ALL_LETTERS : mask;
+    }
+
+    private static int letter(String pattern, char c)
+    {
+        if (c < 'a' || c > 'z')
+        {
+            throw new IllegalArgumentException("Unexpected '" + c + "' in pattern " + pattern);
+        }
+        return c - 'a';
+    }
+
+    /**
+     * Adds the states reached without reading a letter, by skipping a '*'.
+     */
+    private long closure(long states)
+    {
+        for (int i = 0; i < stars.length; i++)
+        {
+            if (stars[i] && (states & (1L << i)) != 0)
+            {
+                states |= 1L << (i + 1);
+            }
+        }
+        return states;
+    }
+
+    /**
+     * @param states - states before the letter
+     * @param c      - letter read, from 0 for 'a'
+     * @return the states after the letter, 0 if none
+     */
+    private long step(long states, int c)
+    {
+        long next = 0;
+        for (long s = states & ~accept; s != 0; s &= s - 1)
+        {
+            int i = Long.numberOfTrailingZeros(s);
+            if (stars[i])
+            {
+                next |= 1L << i;
+            }
+            else if ((masks[i] & (1 << c)) != 0)
+            {
+                next |= 1L << (i + 1);
+            }
+        }
+        return closure(next);
+    }
+
+    /**
+     * @param word - word to check
+     * @return true if the whole word matches the pattern; false otherwise
+     */
+    public boolean matches(String word)
+    {
+        long states = start;
+        for (int i = 0; i < word.length() && states != 0; i++)
+        {
+            int c = word.charAt(i) - 'a';
+            if (c < 0 || c >= ALPHABET)
+            {
+                return false;
+            }
+            states = step(states, c);
+        }
+        return (states & accept) != 0;
+    }
+
+    /**
+     * Finds the words of an AutoCompletionTrie matching the pattern. The
+     * search runs as the stream is read, so only as much of the trie as the
+     * words taken need is visited. The trie must not be changed while the
+     * stream is in use.
+     *
+     * @param trie - trie to search
+     * @return Stream of the words matching, highest count first, then
+     * shortest and then alphabetical
+     */
+    public Stream<String> search(AutoCompletionTrie trie)
+    {
+        return StreamSupport.stream(new Search(trie.getTrieNode()), false);
+    }
+
+    @Override
+    public String toString()
+    {
+        return pattern;
+    }
+
+    /**
+     * Best first walk of the trie, handing out one word per call to
+     * tryAdvance.
+     */
+    private class Search extends Spliterators.AbstractSpliterator<String>
+    {
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>(SearchEntry::compare);
+
+        private Search(AutoCompletionTrieNode root)
+        {
+            super(Long.MAX_VALUE, ORDERED | DISTINCT | NONNULL);
+            if (root != null)
+            {
+                queue.add(new Entry(root, null, '\0', 0, root.getMaxCount(), start, false));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action)
+        {
+            while (!queue.isEmpty())
+            {
+                Entry entry = queue.poll();
+                if (entry.isWord)
+                {
+                    action.accept(entry.getWord());
+                    return true;
+                }
+                expand(entry);
+            }
+            return false;
+        }
+
+        private void expand(Entry entry)
+        {
+            AutoCompletionTrieNode node = entry.node;
+            if (node.getIsWord() && (entry.states & accept) != 0)
+            {
+                queue.add(new Entry(node, entry.parent, entry.label, entry.depth,
+                        node.getCount(), entry.states, true));
+            }
+
+            AutoCompletionTrieNode[] offspring = node.getOffspringArray();
+            for (int i = 0; i < offspring.length; i++)
+            {
+                AutoCompletionTrieNode child = offspring[i];
+                if (child == null)
+                {
+                    continue;
+                }
+                long states = step(entry.states, i);
+                // no word below the child can match
+                if (states == 0)
+                {
+                    continue;
+                }
+                queue.add(new Entry(child, entry, (char) ('a' + i), entry.depth + 1,
+                        child.getMaxCount(), states, false));
+            }
+        }
+    }
+
+    /**
+     * A branch still to be expanded, scored by the largest count below it,
+     * or a word ready to be returned, scored by its own count, with the
+     * states of the pattern reached at its node.
+     */
+    private static class Entry extends SearchEntry
+    {
+        private final AutoCompletionTrieNode node;
+        private final long states;
+
+        private Entry(AutoCompletionTrieNode node, SearchEntry parent, char label, int depth,
+                      int count, long states, boolean isWord)
+        {
+            super(parent, label, depth, count, isWord);
+            this.node = node;
+            this.states = states;
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+
+        for (String pattern : new String[] {"g?ing", "th*y", "[b-d]?[^aeiou]", "*berry", "*ow*"})
+        {
+            System.out.println(pattern + ": "
+                    + Arrays.toString(PatternQuery.compile(pattern).search(trie).limit(5).toArray()));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ File        : ProbabilityFormat.java
+
+ Description : ProbabilityFormat writes a probability rounded to 4 d.p
+               straight into a byte buffer. The probability is passed in as
+               a count and a total so the rounding can be worked out exactly
+               with whole numbers, and the text is the same as a
+               DecimalFormat("#.####") gives for count / (double) total,
+               without creating any objects or sharing any state between
+               threads.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+public class ProbabilityFormat
+{
+    // longest text written: 19 integer digits, a point and 4 decimals
+    public static final int MAX_LENGTH = 24;
+
+    private static final int SCALE = 10000;
+
+    private ProbabilityFormat()
+    {
+
+    }
+
+    /**
+     * Writes count / total rounded to 4 d.p with no trailing zeros, for
+     * example 0.5667, 0.3 or 1.
+     *
+     * @param count  - count of the word, not negative
+     * @param total  - total of all the counts, greater than 0
+     * @param dst    - buffer to write to
+     * @param offset - position in the buffer to start writing at
+     * @return position in the buffer after the last byte written
+     */
+    public static int format(long count, long total, byte[] dst, int offset)
+    {
+        long scaled = count * SCALE / total;
+        long twiceRemainder = 2 * (count * SCALE % total);
+
+        if (twiceRemainder > total)
+        {
+            scaled++;
+        }
+        else if (twiceRemainder == total && scaled != 0)
+        {
+            // a tie in exact arithmetic, DecimalFormat rounds the double
+            // instead, so the side it falls on decides, and half even only
+            // when it is exactly on the tie. fma keeps the sign exact.
+            double error = Math.fma((double) count / total, 2.0 * SCALE,
+                    -(2.0 * scaled + 1));
+            if (error > 0 || (error == 0 && (scaled & 1) == 1))
+            {
+                scaled++;
+            }
+        }
+
+        offset = writeLong(scaled / SCALE, dst, offset);
+        int fraction = (int) (scaled % SCALE);
+        if (fraction != 0)
+        {
+            dst[offset++] = '.';
+            for (int divisor = SCALE / 10; fraction != 0; divisor /= 10)
+            {
+                dst[offset++] = (byte) ('0' + fraction / divisor);
+                fraction %= divisor;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Writes a whole number that is not negative in decimal.
+     *
+     * @param value  - number to write
+     * @param dst    - buffer to write to
+     * @param offset - position in the buffer to start writing at
+     * @return position in the buffer after the last byte written
+     */
+    public static int writeLong(long value, byte[] dst, int offset)
+    {
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10)
+        {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--)
+        {
+            dst[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+}
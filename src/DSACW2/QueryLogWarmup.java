@@ -0,0 +1,264 @@
+/*******************************************************************************
+ File        : QueryLogWarmup.java
+
+ Description : QueryLogWarmup replays a log of recorded queries, in the same
+               format as lotrQueries.csv, against a freshly loaded trie before
+               it is reported ready, so the first real queries after a restart
+               are not the slow ones. Each query goes down the same paths a
+               real one does, getSubTrie with the top three search and
+               getTopCompletions with the csv line written to a null stream,
+               which brings the nodes of the common prefixes into the cache,
+               builds the subtrees of a LazyAutoCompletionTrie, and calls the
+               search code often enough for the JIT to compile it. The log is
+               replayed until a number of calls has been reached or the time
+               allowed has run out, then once more with each query timed.
+               The Report gives the time taken and the latency of the first
+               replay, when nothing was warm, against the timed one after.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+public class QueryLogWarmup
+{
+    // calls after which the JIT has compiled the search code
+    private static final int DEFAULT_CALLS = 20000;
+
+    private final List<String> queries;
+    private final int k;
+    private final int calls;
+    private final long budgetNanos;
+
+    private final CompletionResults results;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    // read after every replay so the JIT can not drop the work
+    private volatile long found;
+
+    /**
+     * @param queries     - recorded queries to replay
+     * @param k           - number of words each query asks for
+     * @param calls       - number of queries to replay, at least one of each
+     * @param budgetNanos - most time to spend replaying before the timed
+     *                      replay
+     */
+    public QueryLogWarmup(List<String> queries, int k, int calls, long budgetNanos)
+    {
+        this.queries = new ArrayList<>(queries);
+        this.k = k;
+        this.calls = calls;
+        this.budgetNanos = budgetNanos;
+        this.results = new CompletionResults(k);
+    }
+
+    /**
+     * Reads a query log with one query on each line, like lotrQueries.csv,
+     * replaying it enough times for the JIT and for at most ten seconds.
+     *
+     * @param fileName - name of the query log
+     * @param k        - number of words each query asks for
+     * @return QueryLogWarmup of the queries in the log
+     */
+    public static QueryLogWarmup fromFile(String fileName, int k)
+    {
+        return new QueryLogWarmup(DictionaryFinder.loadPrefixes(fileName), k, DEFAULT_CALLS,
+                10_000_000_000L);
+    }
+
+    /**
+     * Warms up a trie by replaying the log, then times one more replay.
+     * The results are reused between queries, so runs go one at a time.
+     *
+     * @param trie - trie to warm up
+     * @return Report of the warmup
+     */
+    public synchronized Report run(AutoCompletionTrie trie)
+    {
+        long start = System.nanoTime();
+        long[] cold = replay(trie, true);
+        int replayed = queries.size();
+        int passes = 1;
+        while (replayed < calls && System.nanoTime() - start < budgetNanos && !queries.isEmpty())
+        {
+            replay(trie, false);
+            replayed += queries.size();
+            passes++;
+        }
+        long warmupNanos = System.nanoTime() - start;
+        long[] warm = replay(trie, true);
+        return new Report(warmupNanos, passes, replayed, cold, warm);
+    }
+
+    /**
+     * Replays every query in the log once.
+     *
+     * @param trie  - trie to query
+     * @param timed - true to time each query
+     * @return sorted latencies of the queries if timed; null otherwise
+     */
+    private long[] replay(AutoCompletionTrie trie, boolean timed)
+    {
+        long[] latencies = timed ? new long[queries.size()] : null;
+        long words = 0;
+        for (int i = 0; i < queries.size(); i++)
+        {
+            long before = timed ? System.nanoTime() : 0;
+            words += answer(trie, queries.get(i));
+            if (timed)
+            {
+                latencies[i] = System.nanoTime() - before;
+            }
+        }
+        found = words;
+        if (timed)
+        {
+            Arrays.sort(latencies);
+        }
+        return latencies;
+    }
+
+    /**
+     * Answers one query both ways a real query can be answered.
+     *
+     * @return the number of words found
+     */
+    private int answer(AutoCompletionTrie trie, String query)
+    {
+        try
+        {
+            int words = 0;
+            AutoCompletionTrie subTrie = trie.getSubTrie(query);
+            if (subTrie != null)
+            {
+                AutoCompletion.getTopThreeWordsAndProbabilities(subTrie, query, results);
+                words += results.size();
+            }
+            if (trie.getTopCompletions(query, k, CompletionScorer.COUNT, results))
+            {
+                results.writeCsvLine(sink);
+                words += results.size();
+            }
+            return words;
+        }
+        catch (IllegalArgumentException e)
+        {
+            // a query with characters the trie can not hold still warms the
+            // paths up to them
+            return 0;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * How long a warmup took and the latency of the queries before and
+     * after it.
+     */
+    public static class Report
+    {
+        private final long warmupNanos;
+        private final int passes;
+        private final int replayed;
+        private final long[] cold;
+        private final long[] warm;
+
+        private Report(long warmupNanos, int passes, int replayed, long[] cold, long[] warm)
+        {
+            this.warmupNanos = warmupNanos;
+            this.passes = passes;
+            this.replayed = replayed;
+            this.cold = cold;
+            this.warm = warm;
+        }
+
+        /**
+         * @return the time spent replaying before the timed replay
+         */
+        public long getWarmupNanos()
+        {
+            return warmupNanos;
+        }
+
+        /**
+         * @return the number of times the log was replayed to warm up
+         */
+        public int getPasses()
+        {
+            return passes;
+        }
+
+        /**
+         * @return the number of queries replayed to warm up
+         */
+        public int getReplayed()
+        {
+            return replayed;
+        }
+
+        /**
+         * @param p - percentile wanted, between 0 and 1
+         * @return the latency of the first replay at the percentile
+         */
+        public long getColdNanos(double p)
+        {
+            return LoadTest.percentile(cold, p);
+        }
+
+        /**
+         * @param p - percentile wanted, between 0 and 1
+         * @return the latency of the timed replay after warming up at the
+         * percentile
+         */
+        public long getWarmNanos(double p)
+        {
+            return LoadTest.percentile(warm, p);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("warmup %.1fms, %d passes, %d queries; p50 %.1fus -> %.1fus,"
+                            + " p99 %.1fus -> %.1fus",
+                    warmupNanos / 1e6, passes, replayed,
+                    getColdNanos(0.50) / 1e3, getWarmNanos(0.50) / 1e3,
+                    getColdNanos(0.99) / 1e3, getWarmNanos(0.99) / 1e3);
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+
+        // a log of queries made up from the lotr words, as a real log would be
+        List<String> log = new ArrayList<>(DictionaryFinder.loadPrefixes("lotrQueries.csv"));
+        Random random = new Random(3);
+        List<String> words = trie.getAllWords();
+        for (int i = 0; i < 500; i++)
+        {
+            String word = words.get(random.nextInt(words.size()));
+            if (word.isEmpty())
+            {
+                continue;
+            }
+            log.add(word.substring(0, 1 + random.nextInt(Math.min(3, word.length()))));
+        }
+
+        QueryLogWarmup warmup = new QueryLogWarmup(log, 3, DEFAULT_CALLS, 5_000_000_000L);
+        try (ServingTrie serving = new ServingTrie(trie, warmup))
+        {
+            System.out.println("Ready straight away: " + serving.isReady());
+            System.out.println(serving.awaitReady());
+            System.out.println("Ready: " + serving.isReady());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ File        : ScoreFloor.java
+
+ Description : ScoreFloor keeps the K best word scores a best first search
+               has found so far in a min heap of primitives, so the lowest of
+               them is the score a branch has to reach to hold a word that
+               can still be returned. The searches of the trie use it to skip
+               the branches whose bound is below it, as no word in them can
+               make the top K.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+class ScoreFloor
+{
+    // min heap of the best word scores found so far
+    private final double[] scores;
+    private int size = 0;
+
+    /**
+     * @param k - number of words the search returns, 0 or less for no limit,
+     *            in which case no branch is ever skipped
+     */
+    ScoreFloor(int k)
+    {
+        this.scores = new double[Math.max(k, 0)];
+    }
+
+    /**
+     * @param bound - best score any word in a branch can have
+     * @return true if K words scoring above the bound have been found, so
+     * the branch can be skipped; false otherwise
+     */
+    boolean excludes(double bound)
+    {
+        return size == scores.length && size > 0 && bound < scores[0];
+    }
+
+    /**
+     * Records the score of a word that has been found, keeping only the best
+     * K scores.
+     *
+     * @param score - score of the word found
+     */
+    void raise(double score)
+    {
+        if (scores.length == 0)
+        {
+            return;
+        }
+        if (size < scores.length)
+        {
+            // sift up
+            int i = size++;
+            while (i > 0 && scores[(i - 1) / 2] > score)
+            {
+                scores[i] = scores[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            scores[i] = score;
+        }
+        else if (score > scores[0])
+        {
+            // replace the lowest score and sift down
+            int i = 0;
+            while (2 * i + 1 < size)
+            {
+                int child = 2 * i + 1;
+                if (child + 1 < size && scores[child + 1] < scores[child])
+                {
+                    child++;
+                }
+                if (scores[child] >= score)
+                {
+                    break;
+                }
+                scores[i] = scores[child];
+                i = child;
+            }
+            scores[i] = score;
+        }
+    }
+}
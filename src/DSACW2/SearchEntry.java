@@ -0,0 +1,102 @@
+/*******************************************************************************
+ File        : SearchEntry.java
+
+ Description : SearchEntry is the entry of the priority queue used by the best
+               first searches of the trie, TopKSearch, PatternQuery and
+               OverlayTrie. An entry is either a branch still to be expanded,
+               scored by the best word that can be below it, or a word ready
+               to be returned, scored by the word itself. Each entry keeps the
+               entry of its parent and the character leading to it rather
+               than the word, so queuing a branch creates no string, and the
+               word is only put together once it is returned. The searches
+               extend it with the nodes they walk.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+class SearchEntry
+{
+    final SearchEntry parent;
+    final char label;
+    final int depth;
+    final double score;
+    final boolean isWord;
+
+    /**
+     * @param parent - entry of the branch this came from, null at the start
+     * @param label  - character leading from the parent to this entry
+     * @param depth  - number of characters below the start of the search
+     * @param score  - score of the word, or the best score below a branch
+     * @param isWord - true for a word ready to be returned; false for a
+     *                 branch still to be expanded
+     */
+    SearchEntry(SearchEntry parent, char label, int depth, double score, boolean isWord)
+    {
+        this.parent = parent;
+        this.label = label;
+        this.depth = depth;
+        this.score = score;
+        this.isWord = isWord;
+    }
+
+    /**
+     * Orders entries by highest score, then shortest length, then
+     * alphabetically, with a word placed before the branch it came from.
+     */
+    static int compare(SearchEntry a, SearchEntry b)
+    {
+        int result = Double.compare(b.score, a.score);
+        if (result != 0)
+        {
+            return result;
+        }
+        result = a.depth - b.depth;
+        if (result != 0)
+        {
+            return result;
+        }
+
+        // equal depths, so walk up until both entries share a parent
+        SearchEntry x = a;
+        SearchEntry y = b;
+        while (x.parent != y.parent)
+        {
+            x = x.parent;
+            y = y.parent;
+        }
+        result = x.label - y.label;
+        if (result != 0)
+        {
+            return result;
+        }
+        return Boolean.compare(b.isWord, a.isWord);
+    }
+
+    /**
+     * Copies the characters leading to the entry into the buffer passed in.
+     *
+     * @param dst    - buffer with room for depth characters
+     * @param offset - position in the buffer to start copying at
+     */
+    void getWordChars(char[] dst, int offset)
+    {
+        for (SearchEntry e = this; e.parent != null; e = e.parent)
+        {
+            dst[offset + e.depth - 1] = e.label;
+        }
+    }
+
+    /**
+     * @return the characters leading to the entry, relative to the start of
+     * the search
+     */
+    String getWord()
+    {
+        char[] word = new char[depth];
+        getWordChars(word, 0);
+        return new String(word);
+    }
+}
@@ -0,0 +1,357 @@
+/*******************************************************************************
+ File        : ServingTrie.java
+
+ Description : ServingTrie holds the AutoCompletionTrie that queries are
+               answered from and lets a new version be built and put in its
+               place while queries carry on. A query acquires a Snapshot of
+               the current version and uses it until it is closed, so it
+               always sees one whole trie. A reload builds the next version
+               on a background thread and publishes it with a single atomic
+               swap, so no query waits for the build. Each version counts the
+               snapshots still using it and is retired, letting it be garbage
+               collected, once the last one is closed. A published trie must
+               not be changed again. Given a QueryLogWarmup, the first trie is
+               warmed up on the background thread before the ServingTrie
+               reports ready, and every trie built by a reload is warmed up
+               before it is published, so queries never meet a cold trie. A
+               warmup that throws leaves the ServingTrie not ready, with the
+               exception given by getWarmupFailure and awaitReady.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class ServingTrie implements AutoCloseable
+{
+    private final AtomicReference<Version> current = new AtomicReference<>();
+    private final AtomicLong nextVersion = new AtomicLong(1);
+    private final AtomicLong retired = new AtomicLong();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "serving-trie-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Consumer<Long> retireListener = version -> { };
+    private final QueryLogWarmup warmup;
+    private final CompletableFuture<QueryLogWarmup.Report> ready;
+    private volatile QueryLogWarmup.Report lastWarmup;
+
+    /**
+     * @param initial - first version to serve
+     */
+    public ServingTrie(AutoCompletionTrie initial)
+    {
+        this(initial, null);
+    }
+
+    /**
+     * Serves the first version straight away, reporting ready once it has
+     * been warmed up by replaying a query log on the background thread.
+     *
+     * @param initial - first version to serve
+     * @param warmup  - warmup run on each version before it is ready, null
+     *                  for none
+     */
+    public ServingTrie(AutoCompletionTrie initial, QueryLogWarmup warmup)
+    {
+        this.warmup = warmup;
+        current.set(new Version(initial, nextVersion.getAndIncrement()));
+        if (warmup == null)
+        {
+            ready = CompletableFuture.completedFuture(null);
+        }
+        else
+        {
+            ready = CompletableFuture.supplyAsync(() -> warm(initial), builder);
+        }
+    }
+
+    private QueryLogWarmup.Report warm(AutoCompletionTrie trie)
+    {
+        QueryLogWarmup.Report report = warmup.run(trie);
+        lastWarmup = report;
+        return report;
+    }
+
+    /**
+     * @return true once the first version has been warmed up; false before,
+     * or if the warmup failed
+     */
+    public boolean isReady()
+    {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * @return the exception thrown by the warmup of the first version, null
+     * if it has not failed
+     */
+    public Throwable getWarmupFailure()
+    {
+        if (!ready.isCompletedExceptionally())
+        {
+            return null;
+        }
+        try
+        {
+            ready.join();
+            return null;
+        }
+        catch (CompletionException e)
+        {
+            return e.getCause();
+        }
+        catch (CancellationException e)
+        {
+            return e;
+        }
+    }
+
+    /**
+     * Waits for the first version to be warmed up.
+     *
+     * @return Report of the warmup, null if there was none
+     * @throws InterruptedException
+     * @throws ExecutionException   if the warmup failed, caused by the
+     *                              exception it threw
+     */
+    public QueryLogWarmup.Report awaitReady() throws InterruptedException, ExecutionException
+    {
+        return ready.get();
+    }
+
+    /**
+     * @return Report of the last warmup run, null if none has finished
+     */
+    public QueryLogWarmup.Report getLastWarmup()
+    {
+        return lastWarmup;
+    }
+
+    /**
+     * Takes a snapshot of the current version for a query. The snapshot
+     * must be closed when the query is done, best with try-with-resources.
+     *
+     * @return Snapshot of the version being served
+     */
+    public Snapshot acquire()
+    {
+        while (true)
+        {
+            Version version = current.get();
+            // fails only if the version was swapped out and retired in between
+            if (version.retain())
+            {
+                return new Snapshot(version);
+            }
+        }
+    }
+
+    /**
+     * Builds a new version on the background thread and publishes it once
+     * it is complete, and warmed up if there is a warmup. Reloads run one at
+     * a time in the order requested.
+     *
+     * @param supplier - builds the new trie, for example from a dictionary
+     * @return future completed with the number of the version published
+     */
+    public CompletableFuture<Long> reload(Supplier<AutoCompletionTrie> supplier)
+    {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            AutoCompletionTrie trie = supplier.get();
+            if (warmup != null)
+            {
+                warm(trie);
+            }
+            return publish(trie);
+        }, builder);
+    }
+
+    /**
+     * Swaps a trie that has already been built in to be served. Queries
+     * that already hold a snapshot keep using the version before.
+     *
+     * @param trie - trie to serve, which must not be changed afterwards
+     * @return the number of the version published
+     */
+    public long publish(AutoCompletionTrie trie)
+    {
+        Version version = new Version(trie, nextVersion.getAndIncrement());
+        Version old = current.getAndSet(version);
+        // drop the holder's own reference, the last reader retires it
+        old.release();
+        return version.number;
+    }
+
+    /**
+     * @return the number of the version being served
+     */
+    public long getVersion()
+    {
+        return current.get().number;
+    }
+
+    /**
+     * @return the number of versions retired so far
+     */
+    public long getRetiredCount()
+    {
+        return retired.get();
+    }
+
+    /**
+     * @param listener - called with the number of each version as it retires
+     */
+    public void setRetireListener(Consumer<Long> listener)
+    {
+        this.retireListener = listener;
+    }
+
+    /**
+     * Stops the background builder. Snapshots already taken stay usable.
+     */
+    @Override
+    public void close()
+    {
+        builder.shutdown();
+    }
+
+    /**
+     * One published trie and the number of references to it: one for the
+     * holder while it is current plus one for each open snapshot.
+     */
+    private class Version
+    {
+        private volatile AutoCompletionTrie trie;
+        private final long number;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Version(AutoCompletionTrie trie, long number)
+        {
+            this.trie = trie;
+            this.number = number;
+        }
+
+        private boolean retain()
+        {
+            while (true)
+            {
+                int count = references.get();
+                if (count == 0)
+                {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1))
+                {
+                    return true;
+                }
+            }
+        }
+
+        private void release()
+        {
+            if (references.decrementAndGet() == 0)
+            {
+                trie = null;
+                retired.incrementAndGet();
+                retireListener.accept(number);
+            }
+        }
+    }
+
+    /**
+     * A consistent view of one version for the length of a query.
+     */
+    public class Snapshot implements AutoCloseable
+    {
+        private Version version;
+        private final AutoCompletionTrie trie;
+
+        private Snapshot(Version version)
+        {
+            this.version = version;
+            this.trie = version.trie;
+        }
+
+        /**
+         * @return the trie of this snapshot
+         * @throws IllegalStateException
+         */
+        public AutoCompletionTrie getTrie() throws IllegalStateException
+        {
+            if (version == null)
+            {
+                throw new IllegalStateException("Snapshot has been closed!");
+            }
+            return trie;
+        }
+
+        /**
+         * @return the number of the version of this snapshot
+         */
+        public long getVersion()
+        {
+            return version == null ? -1 : version.number;
+        }
+
+        @Override
+        public void close()
+        {
+            if (version != null)
+            {
+                Version closing = version;
+                version = null;
+                closing.release();
+            }
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie first = new AutoCompletionTrie();
+        first.populateTrie(DictionaryFinder.readWordsFromCSV("testDocument.csv"));
+        ServingTrie serving = new ServingTrie(first);
+        serving.setRetireListener(version -> System.out.println("Retired version " + version));
+
+        // a snapshot held across the reload keeps seeing the old version
+        try (Snapshot snapshot = serving.acquire())
+        {
+            long version = serving.reload(() ->
+            {
+                AutoCompletionTrie next = new AutoCompletionTrie();
+                try
+                {
+                    next.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+                }
+                catch (java.io.FileNotFoundException e)
+                {
+                    throw new CompletionException(e);
+                }
+                return next;
+            }).get();
+
+            System.out.println("Published version " + version + ", snapshot still on version "
+                    + snapshot.getVersion() + " with " + snapshot.getTrie().getDistinctWordCount()
+                    + " words");
+        }
+
+        try (Snapshot snapshot = serving.acquire())
+        {
+            System.out.println("New snapshot on version " + snapshot.getVersion() + " with "
+                    + snapshot.getTrie().getDistinctWordCount() + " words");
+        }
+        serving.close();
+    }
+}
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ File        : ShardRouter.java
+
+ Description : ShardRouter answers top words queries from a set of
+               ShardServer processes that each hold the words of one range of
+               first letters. A query with a prefix goes only to the shard
+               owning its first letter, since every word starting with the
+               prefix is held there. A query spanning the shards, the empty
+               prefix, is sent to every shard at once; the best words of each
+               shard are merged in the same order the trie uses, highest
+               count first, then shortest and then alphabetical, and the
+               totals of the shards are added up so the probabilities are
+               worked out against the whole vocabulary. The shards can be
+               started as local processes over loopback with launch, which
+               runs them from the same class path as the router.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class ShardRouter implements AutoCloseable
+{
+    private final char[] lows;
+    private final char[] highs;
+    private final Connection[] shards;
+    private final List<Process> processes = new ArrayList<>();
+    private final ExecutorService scatter;
+
+    /**
+     * Connects to shards that are already running.
+     *
+     * @param addresses - address of each shard
+     * @param ranges    - range of first letters of each shard, such as a-f
+     * @throws IOException
+     * @throws IllegalArgumentException if the ranges overlap
+     */
+    public ShardRouter(List<InetSocketAddress> addresses, String... ranges)
+            throws IOException, IllegalArgumentException
+    {
+        if (addresses.size() != ranges.length)
+        {
+            throw new IllegalArgumentException("Expected one range for each shard");
+        }
+        lows = new char[ranges.length];
+        highs = new char[ranges.length];
+        for (int i = 0; i < ranges.length; i++)
+        {
+            char[] range = ShardServer.parseRange(ranges[i]);
+            for (int j = 0; j < i; j++)
+            {
+                if (range[0] <= highs[j] && range[1] >= lows[j])
+                {
+                    throw new IllegalArgumentException("Range " + ranges[i] + " overlaps "
+                            + ranges[j]);
+                }
+            }
+            lows[i] = range[0];
+            highs[i] = range[1];
+        }
+
+        shards = new Connection[addresses.size()];
+        for (int i = 0; i < shards.length; i++)
+        {
+            shards[i] = new Connection(addresses.get(i));
+        }
+        scatter = Executors.newFixedThreadPool(Math.max(1, shards.length), runnable ->
+        {
+            Thread thread = new Thread(runnable, "shard-router");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a ShardServer process on loopback for each range, each reading
+     * the words of its range from the corpus, and connects to them.
+     *
+     * @param corpus - csv file of the words
+     * @param ranges - range of first letters of each shard, such as a-f
+     * @return ShardRouter over the shards started, which stops them when
+     * closed
+     * @throws IOException
+     */
+    public static ShardRouter launch(String corpus, String... ranges) throws IOException
+    {
+        String java = System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+        List<Process> started = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        try
+        {
+            // every shard builds its trie at the same time
+            for (String range : ranges)
+            {
+                ProcessBuilder builder = new ProcessBuilder(java, "-cp",
+                        System.getProperty("java.class.path"), ShardServer.class.getName(),
+                        corpus, range, "0");
+                builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+                started.add(builder.start());
+            }
+            for (int i = 0; i < ranges.length; i++)
+            {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(started.get(i).getInputStream()));
+                String line = reader.readLine();
+                if (line == null || !line.startsWith("PORT "))
+                {
+                    throw new IOException("Shard " + ranges[i] + " failed to start");
+                }
+                addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                        Integer.parseInt(line.substring(5).trim())));
+            }
+
+            ShardRouter router = new ShardRouter(addresses, ranges);
+            router.processes.addAll(started);
+            return router;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            for (Process process : started)
+            {
+                process.destroy();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the top words starting with a prefix across the shards.
+     *
+     * @param prefix  - prefix the words must start with
+     * @param k       - maximum number of words
+     * @param results - results to fill, with the probabilities worked out
+     *                  against the total of every shard
+     * @throws IOException
+     */
+    public void getTopCompletions(String prefix, int k, CompletionResults results)
+            throws IOException
+    {
+        if (!prefix.isEmpty())
+        {
+            for (int i = 0; i < shards.length; i++)
+            {
+                if (ShardServer.owns(prefix.charAt(0), lows[i], highs[i]))
+                {
+                    Reply reply = shards[i].query(prefix, k);
+                    results.clear(prefix, reply.total);
+                    for (int j = 0; j < reply.words.length; j++)
+                    {
+                        results.add(reply.words[j].substring(prefix.length()), reply.counts[j]);
+                    }
+                    return;
+                }
+            }
+            // no shard owns the first letter
+            results.clear(prefix, 0);
+            return;
+        }
+
+        List<Future<Reply>> futures = new ArrayList<>();
+        for (Connection shard : shards)
+        {
+            futures.add(scatter.submit(() -> shard.query(prefix, k)));
+        }
+
+        long total = 0;
+        List<Reply> replies = new ArrayList<>();
+        for (Future<Reply> future : futures)
+        {
+            Reply reply = get(future);
+            total += reply.total;
+            replies.add(reply);
+        }
+
+        // each reply is already in order, so the best word left is always
+        // at the front of one of them
+        int[] next = new int[replies.size()];
+        results.clear(prefix, total);
+        for (int taken = 0; taken < k; taken++)
+        {
+            int best = -1;
+            for (int i = 0; i < replies.size(); i++)
+            {
+                if (next[i] < replies.get(i).words.length
+                        && (best < 0 || replies.get(i).compareTo(next[i],
+                                replies.get(best), next[best]) < 0))
+                {
+                    best = i;
+                }
+            }
+            if (best < 0)
+            {
+                break;
+            }
+            Reply reply = replies.get(best);
+            results.add(reply.words[next[best]], reply.counts[next[best]]);
+            next[best]++;
+        }
+    }
+
+    private static Reply get(Future<Reply> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a shard");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Closes the connections and stops any shards started by launch.
+     */
+    @Override
+    public void close()
+    {
+        scatter.shutdown();
+        for (Connection shard : shards)
+        {
+            shard.close();
+        }
+        for (Process process : processes)
+        {
+            process.destroy();
+        }
+    }
+
+    /**
+     * The total and the best words returned by one shard.
+     */
+    private static class Reply
+    {
+        private final long total;
+        private final String[] words;
+        private final int[] counts;
+
+        private Reply(long total, String[] words, int[] counts)
+        {
+            this.total = total;
+            this.words = words;
+            this.counts = counts;
+        }
+
+        /**
+         * Orders the words of two replies by highest count, then shortest
+         * length, then alphabetically, the same as the trie.
+         */
+        private int compareTo(int i, Reply other, int j)
+        {
+            int result = Integer.compare(other.counts[j], counts[i]);
+            if (result != 0)
+            {
+                return result;
+            }
+            result = words[i].length() - other.words[j].length();
+            return result != 0 ? result : words[i].compareTo(other.words[j]);
+        }
+    }
+
+    /**
+     * A connection to one shard, used by one request at a time.
+     */
+    private static class Connection
+    {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private Connection(InetSocketAddress address) throws IOException
+        {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private synchronized Reply query(String prefix, int k) throws IOException
+        {
+            out.writeUTF(prefix);
+            out.writeInt(k);
+            out.flush();
+
+            long total = in.readLong();
+            int size = in.readInt();
+            String[] words = new String[size];
+            int[] counts = new int[size];
+            for (int i = 0; i < size; i++)
+            {
+                words[i] = in.readUTF();
+                counts[i] = in.readInt();
+            }
+            return new Reply(total, words, counts);
+        }
+
+        private void close()
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException e)
+            {
+                // nothing more to do with a connection being dropped
+            }
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie single = new AutoCompletionTrie();
+        single.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+
+        try (ShardRouter router = launch("lotr.csv", "a-f", "g-m", "n-z"))
+        {
+            CompletionResults sharded = new CompletionResults(3);
+            CompletionResults local = new CompletionResults(3);
+            List<String> queries = DictionaryFinder.loadPrefixes("lotrQueries.csv");
+            queries.add("");
+            for (String query : queries)
+            {
+                router.getTopCompletions(query, 3, sharded);
+                single.getTopCompletions(query, 3, CompletionScorer.COUNT, local);
+                System.out.print("'" + query + "' "
+                        + (sharded.toString().equals(local.toString()) ? "matches" : "DIFFERS")
+                        + "\n" + sharded);
+            }
+        }
+    }
+}
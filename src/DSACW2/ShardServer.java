@@ -0,0 +1,210 @@
+/*******************************************************************************
+ File        : ShardServer.java
+
+ Description : ShardServer is one worker of a sharded deployment. It holds
+               an AutoCompletionTrie of only the words whose first letter is
+               in its range, such as a-f, so the vocabulary can be spread
+               over several processes instead of being capped by one heap.
+               It listens on a loopback port and answers top words queries
+               from a ShardRouter. Each request is the prefix and the number
+               of words wanted; the reply is the total count of the words
+               starting with the prefix, which the router adds up across the
+               shards for the probabilities, followed by the best words with
+               their counts. Every connection is served by its own thread and
+               carries any number of requests.
+
+               Usage: ShardServer corpus.csv range [port], where the range is
+               two letters such as a-f and port 0 picks a free port. The port
+               listened on is printed as "PORT n" once the trie is built.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+public class ShardServer
+{
+    private final AutoCompletionTrie trie;
+    private final char low;
+    private final char high;
+
+    /**
+     * @param trie - trie of the words in the range
+     * @param low  - first letter of the range
+     * @param high - last letter of the range
+     */
+    public ShardServer(AutoCompletionTrie trie, char low, char high)
+    {
+        this.trie = trie;
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Builds the trie of the words of a corpus in a range of first letters.
+     *
+     * @param words - words of the corpus
+     * @param low   - first letter of the range
+     * @param high  - last letter of the range
+     * @return ShardServer holding the words in the range
+     */
+    public static ShardServer build(Iterable<String> words, char low, char high)
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        for (String word : words)
+        {
+            if (!word.isEmpty() && owns(word.charAt(0), low, high))
+            {
+                trie.add(word);
+            }
+        }
+        return new ShardServer(trie, low, high);
+    }
+
+    /**
+     * @return true if a first letter is in the range; false otherwise
+     */
+    static boolean owns(char first, char low, char high)
+    {
+        return first >= low && first <= high;
+    }
+
+    /**
+     * Parses a range of first letters written as two letters such as a-f.
+     *
+     * @param range - range to parse
+     * @return array of the first and last letters of the range
+     * @throws IllegalArgumentException
+     */
+    static char[] parseRange(String range) throws IllegalArgumentException
+    {
+        if (range.length() != 3 || range.charAt(1) != '-' || range.charAt(0) < 'a'
+                || range.charAt(2) > 'z' || range.charAt(0) > range.charAt(2))
+        {
+            throw new IllegalArgumentException("Expected a range such as a-f but got " + range);
+        }
+        return new char[] {range.charAt(0), range.charAt(2)};
+    }
+
+    /**
+     * Answers one request read from a stream.
+     *
+     * @param in      - stream to read the prefix and the number of words from
+     * @param out     - stream to write the total and the words to
+     * @param results - results reused between requests
+     * @throws IOException
+     */
+    void answer(DataInputStream in, DataOutputStream out, CompletionResults results)
+            throws IOException
+    {
+        String prefix = in.readUTF();
+        int k = in.readInt();
+
+        try
+        {
+            // a prefix in another range has no words here
+            if (prefix.isEmpty() || owns(prefix.charAt(0), low, high))
+            {
+                trie.getTopCompletions(prefix, k, CompletionScorer.COUNT, results);
+            }
+            else
+            {
+                results.clear(prefix, 0);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            // a character that can not be in the trie matches no words
+            results.clear(prefix, 0);
+        }
+
+        out.writeLong(results.getTotal());
+        out.writeInt(results.size());
+        for (int i = 0; i < results.size(); i++)
+        {
+            out.writeUTF(results.getWord(i));
+            out.writeInt(results.getCount(i));
+        }
+        out.flush();
+    }
+
+    /**
+     * Accepts connections until the server socket is closed.
+     *
+     * @param server - socket to accept connections on
+     * @throws IOException
+     */
+    public void serve(ServerSocket server) throws IOException
+    {
+        while (!server.isClosed())
+        {
+            Socket socket;
+            try
+            {
+                socket = server.accept();
+            }
+            catch (SocketException e)
+            {
+                // the server socket was closed
+                return;
+            }
+            Thread thread = new Thread(() -> handle(socket), "shard-connection");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void handle(Socket socket)
+    {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream())))
+        {
+            s.setTcpNoDelay(true);
+            CompletionResults results = new CompletionResults(8);
+            while (true)
+            {
+                answer(in, out, results);
+            }
+        }
+        catch (EOFException e)
+        {
+            // the router closed the connection
+        }
+        catch (IOException e)
+        {
+            System.err.println("Shard connection failed: " + e.getMessage());
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: ShardServer corpus.csv range [port]");
+            System.exit(1);
+        }
+        char[] range = parseRange(args[1]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        // a shard started by a router goes away with it
+        ProcessHandle.current().parent().ifPresent(parent ->
+                parent.onExit().thenRun(() -> System.exit(0)));
+
+        ShardServer shard = build(DictionaryFinder.readWordsFromCSV(args[0]), range[0], range[1]);
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress()))
+        {
+            System.out.println("PORT " + server.getLocalPort());
+            System.out.flush();
+            shard.serve(server);
+        }
+    }
+}
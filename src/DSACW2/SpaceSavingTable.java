@@ -0,0 +1,269 @@
+/*******************************************************************************
+ File        : SpaceSavingTable.java
+
+ Description : SpaceSavingTable keeps counts for at most a fixed number of
+               words, the ones seen most often. When the table is full a new
+               word takes the place of the word with the lowest count and
+               starts from that count, which is recorded as its possible
+               error, so a count is never below the true count and never more
+               than its error above it. The words are kept in a map for look
+               up and in a min heap ordered by count, so the lowest count is
+               always at the top.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.*;
+
+public class SpaceSavingTable
+{
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size = 0;
+
+    /**
+     * @param capacity - largest number of words kept
+     * @throws IllegalArgumentException
+     */
+    public SpaceSavingTable(int capacity) throws IllegalArgumentException
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be at least 1!");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Counts one occurrence of a word using the Space-Saving algorithm. A
+     * new word replaces the word with the lowest count when the table is
+     * full.
+     *
+     * @param word - word seen
+     * @return the count of the word after it was counted
+     */
+    public long offer(String word)
+    {
+        Counter counter = counters.get(word);
+        if (counter != null)
+        {
+            increment(counter, 1);
+            return counter.count;
+        }
+        long min = isFull() ? heap[0].count : 0;
+        put(word, min + 1, min);
+        return min + 1;
+    }
+
+    /**
+     * Adds to the count of a word already in the table.
+     *
+     * @param word  - word in the table
+     * @param delta - amount to add, not negative
+     * @return true if the word was in the table; false otherwise
+     */
+    public boolean increment(String word, long delta)
+    {
+        Counter counter = counters.get(word);
+        if (counter == null)
+        {
+            return false;
+        }
+        increment(counter, delta);
+        return true;
+    }
+
+    /**
+     * Puts a word that is not in the table into it with the count and error
+     * passed in, replacing the word with the lowest count if the table is
+     * full.
+     *
+     * @param word  - word not in the table
+     * @param count - count to start the word at
+     * @param error - amount the count may be above the true count
+     * @return the word replaced, or null if the table was not full
+     * @throws IllegalArgumentException
+     */
+    public String put(String word, long count, long error) throws IllegalArgumentException
+    {
+        if (counters.containsKey(word))
+        {
+            throw new IllegalArgumentException("[" + word + "] is already in the table!");
+        }
+        String replaced = null;
+        Counter counter;
+        if (isFull())
+        {
+            // reuse the counter of the lowest word, which is at the top
+            counter = heap[0];
+            counters.remove(counter.word);
+            replaced = counter.word;
+            counter.word = word;
+            counter.count = count;
+            counter.error = error;
+            siftDown(0);
+        }
+        else
+        {
+            counter = new Counter(word, count, error, size);
+            heap[size++] = counter;
+            siftUp(counter.index);
+        }
+        counters.put(word, counter);
+        return replaced;
+    }
+
+    /**
+     * Removes a word from the table.
+     *
+     * @param word - word to remove
+     * @return true if the word was in the table; false otherwise
+     */
+    public boolean remove(String word)
+    {
+        Counter counter = counters.remove(word);
+        if (counter == null)
+        {
+            return false;
+        }
+        // the last counter in the heap fills the gap
+        Counter last = heap[--size];
+        heap[size] = null;
+        if (last != counter)
+        {
+            move(last, counter.index);
+            siftUp(last.index);
+            siftDown(last.index);
+        }
+        return true;
+    }
+
+    private void increment(Counter counter, long delta)
+    {
+        counter.count += delta;
+        siftDown(counter.index);
+    }
+
+    public boolean contains(String word)
+    {
+        return counters.containsKey(word);
+    }
+
+    public boolean isFull()
+    {
+        return size == capacity;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the lowest count in the table, 0 if the table is empty
+     */
+    public long getMinCount()
+    {
+        return size == 0 ? 0 : heap[0].count;
+    }
+
+    /**
+     * @param word - word to look up
+     * @return the count of the word, 0 if it is not in the table
+     */
+    public long getCount(String word)
+    {
+        Counter counter = counters.get(word);
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * @param word - word to look up
+     * @return the most the count of the word may be above its true count
+     */
+    public long getError(String word)
+    {
+        Counter counter = counters.get(word);
+        return counter == null ? 0 : counter.error;
+    }
+
+    /**
+     * @param n - number of words
+     * @return List, up to n words with the highest counts first
+     */
+    public List<String> getTopWords(int n)
+    {
+        Counter[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, (a, b) ->
+        {
+            int result = Long.compare(b.count, a.count);
+            return result != 0 ? result : a.word.compareTo(b.word);
+        });
+
+        List<String> words = new ArrayList<>(Math.min(n, size));
+        for (int i = 0; i < sorted.length && i < n; i++)
+        {
+            words.add(sorted[i].word);
+        }
+        return words;
+    }
+
+    private void siftUp(int i)
+    {
+        Counter counter = heap[i];
+        while (i > 0 && heap[(i - 1) / 2].count > counter.count)
+        {
+            move(heap[(i - 1) / 2], i);
+            i = (i - 1) / 2;
+        }
+        move(counter, i);
+    }
+
+    private void siftDown(int i)
+    {
+        Counter counter = heap[i];
+        while (2 * i + 1 < size)
+        {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count)
+            {
+                child++;
+            }
+            if (heap[child].count >= counter.count)
+            {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(counter, i);
+    }
+
+    private void move(Counter counter, int i)
+    {
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    private static class Counter
+    {
+        private String word;
+        private long count;
+        private long error;
+        private int index;
+
+        private Counter(String word, long count, long error, int index)
+        {
+            this.word = word;
+            this.count = count;
+            this.error = error;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ File        : TopKSearch.java
+
+ Description : TopKSearch finds the best scoring words below an
+               AutoCompletionTrieNode without visiting the whole subtree. Every
+               node keeps the highest word count found below it, which the
+               CompletionScorer turns into an upper bound for that branch.
+               Branches are explored best first from a priority queue, so each
+               call to next returns the next best word, and branches that can
+               not beat the K-th best word already found are never expanded.
+               Words with equal scores are returned shortest first and then in
+               alphabetical order. A deadline can be given to next, after which
+               no more branches are expanded and only the words already found
+               are returned. The search is marked as partial only if a branch
+               that could still hold a word to return was given up.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.*;
+
+public class TopKSearch
+{
+    private final CompletionScorer scorer;
+    private final int baseLength;
+    private final int limit;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(SearchEntry::compare);
+
+    // best word scores found so far, used to prune branches
+    private final ScoreFloor floor;
+
+    // how many branches are expanded between looks at the clock
+    private static final int CLOCK_INTERVAL = 16;
+
+    private int returned = 0;
+    private Entry current;
+    private boolean outOfTime = false;
+    private boolean partial = false;
+    private int expanded = 0;
+
+    /**
+     * Creates a search over the subtree of the node passed in.
+     *
+     * @param start      - node to search below, the node itself included
+     * @param baseLength - length of the prefix leading to the start node
+     * @param limit      - maximum number of words to return, 0 for no limit
+     * @param scorer     - scorer used to rank the words
+     */
+    public TopKSearch(AutoCompletionTrieNode start, int baseLength, int limit,
+                      CompletionScorer scorer)
+    {
+        this.scorer = scorer;
+        this.baseLength = baseLength;
+        this.limit = limit;
+        this.floor = new ScoreFloor(limit);
+
+        if (start != null)
+        {
+            queue.add(new Entry(start, null, '\0', 0,
+                    scorer.score(start.getMaxCount(), baseLength), false));
+        }
+    }
+
+    /**
+     * Moves the search on to the next best word.
+     *
+     * @return true if another word was found; false once the limit is
+     * reached or every branch has been searched
+     */
+    public boolean next()
+    {
+        return next(false, 0);
+    }
+
+    /**
+     * Moves the search on to the next best word, giving up on the branches
+     * not yet expanded once the deadline has passed. From then on only the
+     * words already found are returned, best first, and isPartial is true
+     * once a branch ranked ahead of them has been given up.
+     *
+     * @param deadline - value of System.nanoTime to stop expanding at
+     * @return true if another word was found; false once the limit is
+     * reached, every branch has been searched or, after the deadline, no
+     * word found is left
+     */
+    public boolean next(long deadline)
+    {
+        return next(true, deadline);
+    }
+
+    private boolean next(boolean timed, long deadline)
+    {
+        current = null;
+        if (limit > 0 && returned == limit)
+        {
+            return false;
+        }
+
+        while (!queue.isEmpty())
+        {
+            Entry entry = queue.poll();
+            if (entry.isWord)
+            {
+                current = entry;
+                returned++;
+                return true;
+            }
+            if (outOfTime)
+            {
+                // out of time, so the branch is dropped and may have held
+                // a better word than the ones still queued
+                partial = true;
+                continue;
+            }
+            expand(entry);
+
+            if (timed && ++expanded % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline >= 0)
+            {
+                outOfTime = true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if a branch that could hold a better word than the ones
+     * returned was given up because the deadline passed; false otherwise
+     */
+    public boolean isPartial()
+    {
+        return partial;
+    }
+
+    /**
+     * @return the word found by the last call to next, relative to the
+     * start node
+     */
+    public String getWord()
+    {
+        return current.getWord();
+    }
+
+    /**
+     * Copies the characters of the word found by the last call to next into
+     * the buffer passed in, without creating a string.
+     *
+     * @param dst    - buffer with room for getDepth characters
+     * @param offset - position in the buffer to start copying at
+     */
+    public void getWordChars(char[] dst, int offset)
+    {
+        current.getWordChars(dst, offset);
+    }
+
+    /**
+     * @return the number of characters in the word found by the last call
+     * to next, relative to the start node
+     */
+    public int getDepth()
+    {
+        return current.depth;
+    }
+
+    /**
+     * @return the node of the word found by the last call to next
+     */
+    public AutoCompletionTrieNode getNode()
+    {
+        return current.node;
+    }
+
+    /**
+     * @return the score of the word found by the last call to next
+     */
+    public double getScore()
+    {
+        return current.score;
+    }
+
+    /**
+     * Queues the node's own word and every child that could still beat the
+     * K-th best word found so far.
+     *
+     * @param entry - entry of the node to expand
+     */
+    private void expand(Entry entry)
+    {
+        AutoCompletionTrieNode node = entry.node;
+        int length = baseLength + entry.depth;
+
+        if (node.getIsWord())
+        {
+            double score = scorer.score(node.getCount(), length);
+            queue.add(new Entry(node, entry.parent, entry.label, entry.depth,
+                    score, true));
+            floor.raise(score);
+        }
+
+        AutoCompletionTrieNode[] offspring = node.getOffspringArray();
+        for (int i = 0; i < offspring.length; i++)
+        {
+            AutoCompletionTrieNode child = offspring[i];
+            if (child == null)
+            {
+                continue;
+            }
+            double bound = scorer.score(child.getMaxCount(), length + 1);
+
+            // a branch scoring below the K-th best word can never be returned
+            if (floor.excludes(bound))
+            {
+                continue;
+            }
+            queue.add(new Entry(child, entry, (char) ('a' + i),
+                    entry.depth + 1, bound, false));
+        }
+    }
+
+    /**
+     * A branch still to be expanded or a word ready to be returned, with the
+     * node it is at.
+     */
+    private static class Entry extends SearchEntry
+    {
+        private final AutoCompletionTrieNode node;
+
+        private Entry(AutoCompletionTrieNode node, SearchEntry parent, char label,
+                      int depth, double score, boolean isWord)
+        {
+            super(parent, label, depth, score, isWord);
+            this.node = node;
+        }
+    }
+}
@@ -4,8 +4,9 @@
  Description : This class is made to mimic a trie data structure. It uses the
                TrieNode class to represent nodes in the trie. The root is set
                to a TrieNode. The class contains the following methods add,
-               contains, outputBreadthFirstSearch, outputDepthFirstSearch,
-               getSubTrie, getAllWords.
+               contains, addAll, containsAll, outputBreadthFirstSearch,
+               outputDepthFirstSearch, writeBreadthFirstSearch,
+               writeDepthFirstSearch, getSubTrie, getAllWords.
 
  Author      : Dovydas Novikovas
 
@@ -14,11 +15,21 @@
 *******************************************************************************/
 package DSACW2;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class Trie
 {
+    // size of the buffer the traversals are written through
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
     private TrieNode root;
+    // optional filter turning away words and prefixes that are not here
+    private BloomFilter filter;
 
     public Trie()
     {
@@ -69,19 +80,288 @@ public class Trie
         }
         // only leaf node's 'setIsWord' is set to true
         temp.setIsWord(true);
+        if (filter != null)
+        {
+            filter.add(key);
+        }
         return true;
     }
 
+    /**
+     * Adds a batch of words, sorted first if they are not already in order,
+     * with any repeats dropped. Each word carries on from the node at the
+     * end of the prefix it shares with the word before it, so shared
+     * prefixes are only walked once.
+     *
+     * @param keys - words to add
+     * @return the number of words that were not already in the Trie
+     * @throws IllegalArgumentException
+     */
+    public int addAll(List<String> keys) throws IllegalArgumentException
+    {
+        if (!isSorted(keys))
+        {
+            // only the distinct keys are worth sorting
+            String[] distinct = new HashSet<>(keys).toArray(new String[0]);
+            Arrays.sort(distinct);
+            keys = Arrays.asList(distinct);
+        }
+        TrieNode[] path = new TrieNode[32];
+        path[0] = root;
+        String previous = "";
+        int added = 0;
+
+        for (String key : keys)
+        {
+            if (path.length <= key.length())
+            {
+                path = Arrays.copyOf(path, Math.max(key.length() + 1, path.length * 2));
+            }
+
+            // nodes up to the shared prefix are already on the path
+            for (int i = sharedLength(previous, key); i < key.length(); i++)
+            {
+                TrieNode next = path[i].getOffspring(key.charAt(i));
+                if (next == null)
+                {
+                    path[i].setOffspring(key.charAt(i));
+                    next = path[i].getOffspring(key.charAt(i));
+                }
+                path[i + 1] = next;
+            }
+            previous = key;
+
+            TrieNode node = path[key.length()];
+            if (!node.getIsWord())
+            {
+                node.setIsWord(true);
+                if (filter != null)
+                {
+                    filter.add(key);
+                }
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Checks a batch of keys, sorted first if they are not already in
+     * order, each carrying on from the deepest node shared with the key
+     * before it.
+     *
+     * @param keys - keys to look for
+     * @return array with true at the position of each key in the Trie
+     * @throws IllegalArgumentException
+     */
+    public boolean[] containsAll(List<String> keys) throws IllegalArgumentException
+    {
+        boolean[] found = new boolean[keys.size()];
+        TrieNode[] path = new TrieNode[32];
+        path[0] = root;
+        // deepest node on the path reached by the key before
+        int depth = 0;
+        String previous = "";
+
+        for (int index : sortedOrder(keys))
+        {
+            String key = keys.get(index);
+            if (filter != null && !mightContainWord(key))
+            {
+                continue;
+            }
+            if (path.length <= key.length())
+            {
+                path = Arrays.copyOf(path, Math.max(key.length() + 1, path.length * 2));
+            }
+
+            depth = Math.min(depth, sharedLength(previous, key));
+            while (depth < key.length())
+            {
+                TrieNode next = path[depth].getOffspring(key.charAt(depth));
+                if (next == null)
+                {
+                    break;
+                }
+                path[++depth] = next;
+            }
+            previous = key;
+            found[index] = depth == key.length() && path[depth].getIsWord();
+        }
+        return found;
+    }
+
+    /**
+     * @param keys - keys to put in order
+     * @return the positions of the keys in alphabetical order, without
+     * sorting if they already are
+     */
+    static int[] sortedOrder(List<String> keys)
+    {
+        int[] order = new int[keys.size()];
+        for (int i = 0; i < order.length; i++)
+        {
+            order[i] = i;
+        }
+        if (!isSorted(keys))
+        {
+            Integer[] boxed = new Integer[order.length];
+            for (int i = 0; i < order.length; i++)
+            {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, Comparator.comparing(keys::get));
+            for (int i = 0; i < order.length; i++)
+            {
+                order[i] = boxed[i];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @param keys - keys to check
+     * @return true if the keys are in alphabetical order; false otherwise
+     */
+    static boolean isSorted(List<String> keys)
+    {
+        for (int i = 1; i < keys.size(); i++)
+        {
+            if (keys.get(i - 1).compareTo(keys.get(i)) > 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param key - key to check
+     * @return true if every character of the key is a lowercase a-z letter
+     * a trie can hold; false otherwise
+     */
+    static boolean isLetters(CharSequence key)
+    {
+        for (int i = 0; i < key.length(); i++)
+        {
+            char c = key.charAt(i);
+            if (c < 'a' || c > 'z')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param chars  - buffer holding the key
+     * @param length - number of characters of the key in the buffer
+     * @return true if every character of the key is a lowercase a-z letter
+     * a trie can hold; false otherwise
+     */
+    static boolean isLetters(char[] chars, int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (chars[i] < 'a' || chars[i] > 'z')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the length of the prefix two strings share
+     */
+    static int sharedLength(String a, String b)
+    {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++)
+        {
+            if (a.charAt(i) != b.charAt(i))
+            {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Puts a BloomFilter of the words in the Trie, and their prefixes up to
+     * the length passed in, in front of contains and getSubTrie so that
+     * most keys that are not in the Trie are turned away without walking
+     * it. Keys with characters a Trie can not hold are always turned away
+     * while the filter is on, before it is looked at, rather than throwing.
+     * Words added afterwards are added to the filter too. Calling this
+     * again builds the filter again.
+     *
+     * @param expectedWords     - number of words the Trie is expected to hold
+     * @param prefixLength      - longest prefix the filter holds
+     * @param falsePositiveRate - chance a key not in the Trie gets through
+     */
+    public void enableLookupFilter(long expectedWords, int prefixLength, double falsePositiveRate)
+    {
+        BloomFilter built = new BloomFilter(expectedWords, prefixLength, falsePositiveRate);
+        if (root != null)
+        {
+            addToFilter(root, new StringBuilder(), built);
+        }
+        filter = built;
+    }
+
+    /**
+     * @param key - key to check
+     * @return false if the key can not be in the Trie or the filter shows
+     * it is not; true otherwise
+     */
+    private boolean mightContainWord(String key)
+    {
+        return isLetters(key) && filter.mightContainWord(key);
+    }
+
+    /**
+     * Removes the filter put in front of contains and getSubTrie.
+     */
+    public void disableLookupFilter()
+    {
+        filter = null;
+    }
+
+    private static void addToFilter(TrieNode node, StringBuilder sb, BloomFilter filter)
+    {
+        if (node.getIsWord())
+        {
+            filter.add(sb);
+        }
+        TrieNode[] offspring = node.getOffspringArray();
+        for (int i = 0; i < offspring.length; i++)
+        {
+            if (offspring[i] != null)
+            {
+                sb.append((char) ('a' + i));
+                addToFilter(offspring[i], sb, filter);
+                sb.setLength(sb.length() - 1);
+            }
+        }
+    }
+
     /**
      * Traverses through the Trie and checks if the string passed in the
      * argument occurs in the Trie. If a complete word is found in the Trie
-     * true is returned.
+     * true is returned. With a lookup filter enabled most keys not in the
+     * Trie, including keys with characters a Trie can not hold, return
+     * false without walking it.
      *
      * @param  key - string to search for
      * @return true if Trie contains key passed in; false otherwise
      */
     public boolean contains(String key)
     {
+        if (filter != null && !mightContainWord(key))
+        {
+            return false;
+        }
         TrieNode temp = this.root;
 
         // checks every char in the string
@@ -112,17 +392,61 @@ public class Trie
             return null;
         }
 
-        // used to build the output string
-        StringBuilder string = new StringBuilder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try
+        {
+            writeBreadthFirstSearch(out);
+        }
+        catch (IOException e)
+        {
+            // a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the content of each node in a 'Breadth First Search' traversal
+     * to a stream, a buffer at a time.
+     *
+     * @param  out - stream to write to, which is not closed
+     * @throws IOException
+     */
+    public void writeBreadthFirstSearch(OutputStream out) throws IOException
+    {
+        writeBreadthFirstSearch(Channels.newChannel(out));
+    }
+
+    /**
+     * Writes the content of each node in a 'Breadth First Search' traversal
+     * to a channel through a fixed size buffer. The nodes waiting to be
+     * visited are kept in an array used as a ring, which grows only to the
+     * number of nodes on the widest level of the Trie.
+     *
+     * @param  channel - channel to write to, which is not closed
+     * @throws IOException
+     */
+    public void writeBreadthFirstSearch(WritableByteChannel channel) throws IOException
+    {
+        if(this.root == null)
+        {
+            return;
+        }
 
-        // used as separate data structure to hold temp visited nodes
-        Queue<TrieNode> queue = new LinkedList<TrieNode>();
+        ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        TrieNode[] queue = new TrieNode[64];
+        int head = 0;
+        int size = 0;
 
-        queue.add(this.root);
+        queue[0] = this.root;
+        size = 1;
 
-        while(!(queue.isEmpty()))
+        while(size > 0)
         {
-            TrieNode temp = queue.remove();
+            TrieNode temp = queue[head];
+            queue[head] = null;
+            head = (head + 1) & (queue.length - 1);
+            size--;
 
             // checks every node in the offspring
             for (TrieNode node : temp.getOffspringArray())
@@ -130,52 +454,136 @@ public class Trie
                 // if offspring node is not empty
                 if(!(node == null))
                 {
-                    queue.add(node);
-                    string.append(node.getPrefix());
+                    if(size == queue.length)
+                    {
+                        // unrolls the ring into a new array twice the size
+                        TrieNode[] larger = new TrieNode[queue.length * 2];
+                        for (int i = 0; i < size; i++)
+                        {
+                            larger[i] = queue[(head + i) & (queue.length - 1)];
+                        }
+                        queue = larger;
+                        head = 0;
+                    }
+                    queue[(head + size) & (queue.length - 1)] = node;
+                    size++;
+                    put(channel, buffer, node.getPrefix());
                 }
             }
-
         }
-        return string.toString();
+        flush(channel, buffer);
     }
 
     /**
-     * Calls the private outputDepthFirstSearch method within Trie class to
-     * retrieve a depth first search traversal of the Trie, passing the
-     * method the parameters of this Trie and a new string builder to
-     * out the return string.
+     * Calls writeDepthFirstSearch to retrieve a depth first search traversal
+     * of the Trie, collecting the output into a string.
      *
      * @return string representation of the Trie after a "dfs" traversal
      */
     public String outputDepthFirstSearch()
     {
-        // calls private outputDepthFirstSearch method within Trie class
-        return outputDepthFirstSearch(this.root, new StringBuilder());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try
+        {
+            writeDepthFirstSearch(out);
+        }
+        catch (IOException e)
+        {
+            // a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
     }
 
     /**
-     * Traverses the Trie in a recursive 'Depth First Search' traversal and
-     * returns string of the content in each node.
+     * Writes the content of each node in a 'Depth First Search' traversal to
+     * a stream, a buffer at a time.
      *
-     * @param  node - Trie node to begin traversal from
-     * @param  sb   - String builder to be used to form the output string
-     * @return string representation of the Trie after a "dfs" traversal
+     * @param  out - stream to write to, which is not closed
+     * @throws IOException
      */
-    private String outputDepthFirstSearch(TrieNode node, StringBuilder sb)
+    public void writeDepthFirstSearch(OutputStream out) throws IOException
     {
-        // adds content in root
-        sb.append(node.getPrefix());
+        writeDepthFirstSearch(Channels.newChannel(out));
+    }
+
+    /**
+     * Writes the content of each node below the root in a 'Depth First
+     * Search' traversal to a channel through a fixed size buffer. The
+     * traversal keeps a stack of the nodes on the current path instead of
+     * recursing, so it uses memory for the longest word only.
+     *
+     * @param  channel - channel to write to, which is not closed
+     * @throws IOException
+     */
+    public void writeDepthFirstSearch(WritableByteChannel channel) throws IOException
+    {
+        if(this.root == null)
+        {
+            return;
+        }
 
-        // for all the offspring that are not empty, call method recursively
-        for (TrieNode n : node.getOffspringArray())
+        ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        // nodes on the current path and the next offspring of each to visit
+        TrieNode[] stack = new TrieNode[16];
+        int[] nextChild = new int[16];
+        int depth = 0;
+        stack[0] = this.root;
+
+        while(depth >= 0)
         {
-            if(!(n == null))
+            TrieNode[] offspring = stack[depth].getOffspringArray();
+            int i = nextChild[depth];
+            while(i < offspring.length && offspring[i] == null)
             {
-                // calls method recursively until leaf node is found
-                outputDepthFirstSearch(n, sb);
+                i++;
             }
+
+            if(i == offspring.length)
+            {
+                stack[depth--] = null;
+                continue;
+            }
+
+            nextChild[depth] = i + 1;
+            put(channel, buffer, offspring[i].getPrefix());
+
+            depth++;
+            if(depth == stack.length)
+            {
+                stack = Arrays.copyOf(stack, depth * 2);
+                nextChild = Arrays.copyOf(nextChild, depth * 2);
+            }
+            stack[depth] = offspring[i];
+            nextChild[depth] = 0;
+        }
+        flush(channel, buffer);
+    }
+
+    /**
+     * Adds a character to the buffer, writing the buffer out when it is full.
+     */
+    private static void put(WritableByteChannel channel, ByteBuffer buffer, char c)
+            throws IOException
+    {
+        if(!buffer.hasRemaining())
+        {
+            flush(channel, buffer);
         }
-        return sb.substring(1);
+        buffer.put((byte) c);
+    }
+
+    /**
+     * Writes out everything in the buffer and empties it.
+     */
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while(buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
     }
 
     /**
@@ -191,6 +599,10 @@ public class Trie
         if (root == null) {
             return null;
         }
+        if (filter != null && !(isLetters(prefix) && filter.mightContainPrefix(prefix)))
+        {
+            return null;
+        }
 
         TrieNode temp = this.root;
         
@@ -309,7 +721,12 @@ public class Trie
         System.out.println("BFS Trie: " + t1.outputBreadthFirstSearch());
 
         // testing the depth first search method to see it prints correctly
-        System.out.println("DFS Trie: " + t1.outputDepthFirstSearch() + "\n");
+        System.out.println("DFS Trie: " + t1.outputDepthFirstSearch());
+
+        // testing the traversal is streamed the same as the string
+        System.out.print("DFS Trie streamed: ");
+        t1.writeDepthFirstSearch(System.out);
+        System.out.println("\n");
 
         // testing the subTrie method
         Trie t2 = t1.getSubTrie("ch");
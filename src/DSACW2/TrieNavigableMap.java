@@ -0,0 +1,760 @@
+/*******************************************************************************
+ File        : TrieNavigableMap.java
+
+ Description : TrieNavigableMap is a read only NavigableMap of the words of an
+               AutoCompletionTrie to their counts, so code that wants the words
+               in sorted order can use the trie rather than a second copy of
+               the vocabulary in a TreeMap. The trie already lists its words
+               in alphabetical order, and the number of words below each node
+               gives the position of any key, its rank, and the word at any
+               position, by select, in the depth of the trie times the size of
+               the alphabet. A view is a range of positions between two
+               bounds, so floor, ceiling, higher and lower, sub maps, head and
+               tail maps, prefix maps and descending maps are all worked out
+               from ranks without copying anything, and they see words added
+               to the trie afterwards. getCount and forEachCount give the
+               counts without boxing them.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+public class TrieNavigableMap extends AbstractMap<String, Integer>
+        implements NavigableMap<String, Integer>
+{
+    private final AutoCompletionTrie trie;
+    // bounds of the view in alphabetical order, null for none
+    private final String low;
+    private final boolean lowInclusive;
+    private final String high;
+    private final boolean highInclusive;
+    private final boolean descending;
+
+    /**
+     * @param trie - trie whose words and counts the map is a view of
+     */
+    public TrieNavigableMap(AutoCompletionTrie trie)
+    {
+        this(trie, null, true, null, true, false);
+    }
+
+    private TrieNavigableMap(AutoCompletionTrie trie, String low, boolean lowInclusive,
+                             String high, boolean highInclusive, boolean descending)
+    {
+        this.trie = trie;
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.high = high;
+        this.highInclusive = highInclusive;
+        this.descending = descending;
+    }
+
+    /**
+     * @param key - key to look for, which may hold any characters
+     * @return the node of the key, null if there is none
+     */
+    private AutoCompletionTrieNode find(String key)
+    {
+        AutoCompletionTrieNode temp = trie.getTrieNode();
+        for (int i = 0; i < key.length() && temp != null; i++)
+        {
+            int index = key.charAt(i) - 'a';
+            AutoCompletionTrieNode[] offspring = temp.getOffspringArray();
+            temp = index >= 0 && index < offspring.length ? offspring[index] : null;
+        }
+        return temp;
+    }
+
+    private boolean isWord(String key)
+    {
+        AutoCompletionTrieNode node = find(key);
+        return node != null && node.getIsWord();
+    }
+
+    /**
+     * Works the same as AutoCompletionTrie.rank, but for a key with
+     * characters the trie can not hold, ordered as String.compareTo would.
+     *
+     * @param key - key to find the position of
+     * @return the number of words in the trie before the key
+     */
+    private int countBefore(String key)
+    {
+        int rank = 0;
+        AutoCompletionTrieNode temp = trie.getTrieNode();
+        for (int i = 0; i < key.length() && temp != null; i++)
+        {
+            // a prefix of the key comes before it
+            if (temp.getIsWord())
+            {
+                rank++;
+            }
+            AutoCompletionTrieNode[] offspring = temp.getOffspringArray();
+            int index = key.charAt(i) - 'a';
+            for (int j = 0; j < index && j < offspring.length; j++)
+            {
+                if (offspring[j] != null)
+                {
+                    rank += offspring[j].getWordCount();
+                }
+            }
+            temp = index >= 0 && index < offspring.length ? offspring[index] : null;
+        }
+        return rank;
+    }
+
+    /**
+     * @return the position of the first word in the view
+     */
+    private int fromIndex()
+    {
+        if (low == null)
+        {
+            return 0;
+        }
+        return countBefore(low) + (!lowInclusive && isWord(low) ? 1 : 0);
+    }
+
+    /**
+     * @return the position after the last word in the view
+     */
+    private int toIndex()
+    {
+        if (high == null)
+        {
+            return trie.getDistinctWordCount();
+        }
+        return countBefore(high) + (highInclusive && isWord(high) ? 1 : 0);
+    }
+
+    private Entry<String, Integer> entryAt(int index)
+    {
+        WordCursor cursor = trie.getWordCursor("", index);
+        return cursor.next() ? new SimpleImmutableEntry<>(cursor.getWord(), cursor.getCount()) : null;
+    }
+
+    /**
+     * @param index - position after the first word to visit
+     * @return cursor over the words in reverse alphabetical order, whose
+     * next call to next returns the word before the position
+     */
+    private WordCursor reverseCursor(int index)
+    {
+        WordCursor cursor = new WordCursor(trie.getTrieNode(), "", true);
+        cursor.skip(trie.getDistinctWordCount() - index);
+        return cursor;
+    }
+
+    private boolean inRange(String key)
+    {
+        if (low != null)
+        {
+            int c = key.compareTo(low);
+            if (c < 0 || (c == 0 && !lowInclusive))
+            {
+                return false;
+            }
+        }
+        if (high != null)
+        {
+            int c = key.compareTo(high);
+            if (c > 0 || (c == 0 && !highInclusive))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a key used as a bound of a new view lies within this view.
+     *
+     * @throws IllegalArgumentException
+     */
+    private void checkBound(String key, boolean inclusive) throws IllegalArgumentException
+    {
+        if (low != null)
+        {
+            int c = key.compareTo(low);
+            if (c < 0 || (c == 0 && !lowInclusive && inclusive))
+            {
+                throw new IllegalArgumentException("Key out of range: " + key);
+            }
+        }
+        if (high != null)
+        {
+            int c = key.compareTo(high);
+            if (c > 0 || (c == 0 && !highInclusive && inclusive))
+            {
+                throw new IllegalArgumentException("Key out of range: " + key);
+            }
+        }
+    }
+
+    /*
+     * The words in alphabetical order, whichever way the view goes.
+     */
+
+    private Entry<String, Integer> lowest()
+    {
+        int from = fromIndex();
+        return from < toIndex() ? entryAt(from) : null;
+    }
+
+    private Entry<String, Integer> highest()
+    {
+        int to = toIndex();
+        return to > fromIndex() ? entryAt(to - 1) : null;
+    }
+
+    private Entry<String, Integer> ceiling(String key)
+    {
+        int index = Math.max(countBefore(key), fromIndex());
+        return index < toIndex() ? entryAt(index) : null;
+    }
+
+    private Entry<String, Integer> higher(String key)
+    {
+        int index = Math.max(countBefore(key) + (isWord(key) ? 1 : 0), fromIndex());
+        return index < toIndex() ? entryAt(index) : null;
+    }
+
+    private Entry<String, Integer> floor(String key)
+    {
+        int index = Math.min(countBefore(key) + (isWord(key) ? 1 : 0), toIndex()) - 1;
+        return index >= fromIndex() ? entryAt(index) : null;
+    }
+
+    private Entry<String, Integer> lower(String key)
+    {
+        int index = Math.min(countBefore(key), toIndex()) - 1;
+        return index >= fromIndex() ? entryAt(index) : null;
+    }
+
+    private static String keyOf(Entry<String, Integer> entry)
+    {
+        return entry == null ? null : entry.getKey();
+    }
+
+    private static String keyOrThrow(Entry<String, Integer> entry) throws NoSuchElementException
+    {
+        if (entry == null)
+        {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    /**
+     * @param word - word to count
+     * @return the count of the word, 0 if it is not in the view
+     */
+    public int getCount(String word)
+    {
+        if (!inRange(word))
+        {
+            return 0;
+        }
+        AutoCompletionTrieNode node = find(word);
+        return node != null && node.getIsWord() ? node.getCount() : 0;
+    }
+
+    /**
+     * Passes every word of the view and its count to the action, in the
+     * order of the view, without boxing the counts.
+     *
+     * @param action - action to pass each word and count to
+     */
+    public void forEachCount(ObjIntConsumer<String> action)
+    {
+        int from = fromIndex();
+        int to = toIndex();
+        if (descending)
+        {
+            WordCursor cursor = reverseCursor(to);
+            for (int i = to - 1; i >= from && cursor.next(); i--)
+            {
+                action.accept(cursor.getWord(), cursor.getCount());
+            }
+            return;
+        }
+        WordCursor cursor = trie.getWordCursor("", from);
+        for (int i = from; i < to && cursor.next(); i++)
+        {
+            action.accept(cursor.getWord(), cursor.getCount());
+        }
+    }
+
+    /**
+     * @param prefix - prefix the words must start with
+     * @return view of the words of this view starting with the prefix
+     */
+    public TrieNavigableMap prefixMap(String prefix)
+    {
+        String from = prefix;
+        boolean fromInclusive = true;
+        if (low != null && low.compareTo(prefix) >= 0)
+        {
+            from = low;
+            fromInclusive = lowInclusive;
+        }
+        // every word starting with the prefix comes before this
+        String to = prefix + Character.MAX_VALUE;
+        boolean toInclusive = false;
+        if (high != null && high.compareTo(to) < 0)
+        {
+            to = high;
+            toInclusive = highInclusive;
+        }
+        return new TrieNavigableMap(trie, from, fromInclusive, to, toInclusive, descending);
+    }
+
+    @Override
+    public Integer get(Object key)
+    {
+        if (!(key instanceof String) || !inRange((String) key))
+        {
+            return null;
+        }
+        AutoCompletionTrieNode node = find((String) key);
+        return node != null && node.getIsWord() ? node.getCount() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size()
+    {
+        return Math.max(0, toIndex() - fromIndex());
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<String, Integer>> entrySet()
+    {
+        return new AbstractSet<Entry<String, Integer>>()
+        {
+            @Override
+            public Iterator<Entry<String, Integer>> iterator()
+            {
+                return entryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return TrieNavigableMap.this.size();
+            }
+        };
+    }
+
+    private Iterator<Entry<String, Integer>> entryIterator()
+    {
+        int from = fromIndex();
+        int to = toIndex();
+        if (descending)
+        {
+            WordCursor cursor = reverseCursor(to);
+            return new Iterator<Entry<String, Integer>>()
+            {
+                private int next = to - 1;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return next >= from;
+                }
+
+                @Override
+                public Entry<String, Integer> next()
+                {
+                    if (!hasNext() || !cursor.next())
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    next--;
+                    return new SimpleImmutableEntry<>(cursor.getWord(), cursor.getCount());
+                }
+            };
+        }
+
+        WordCursor cursor = trie.getWordCursor("", from);
+        return new Iterator<Entry<String, Integer>>()
+        {
+            private int next = from;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next < to;
+            }
+
+            @Override
+            public Entry<String, Integer> next()
+            {
+                if (!hasNext() || !cursor.next())
+                {
+                    throw new NoSuchElementException();
+                }
+                next++;
+                return new SimpleImmutableEntry<>(cursor.getWord(), cursor.getCount());
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super String> comparator()
+    {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public Entry<String, Integer> firstEntry()
+    {
+        return descending ? highest() : lowest();
+    }
+
+    @Override
+    public Entry<String, Integer> lastEntry()
+    {
+        return descending ? lowest() : highest();
+    }
+
+    @Override
+    public String firstKey()
+    {
+        return keyOrThrow(firstEntry());
+    }
+
+    @Override
+    public String lastKey()
+    {
+        return keyOrThrow(lastEntry());
+    }
+
+    @Override
+    public Entry<String, Integer> lowerEntry(String key)
+    {
+        return descending ? higher(key) : lower(key);
+    }
+
+    @Override
+    public String lowerKey(String key)
+    {
+        return keyOf(lowerEntry(key));
+    }
+
+    @Override
+    public Entry<String, Integer> floorEntry(String key)
+    {
+        return descending ? ceiling(key) : floor(key);
+    }
+
+    @Override
+    public String floorKey(String key)
+    {
+        return keyOf(floorEntry(key));
+    }
+
+    @Override
+    public Entry<String, Integer> ceilingEntry(String key)
+    {
+        return descending ? floor(key) : ceiling(key);
+    }
+
+    @Override
+    public String ceilingKey(String key)
+    {
+        return keyOf(ceilingEntry(key));
+    }
+
+    @Override
+    public Entry<String, Integer> higherEntry(String key)
+    {
+        return descending ? lower(key) : higher(key);
+    }
+
+    @Override
+    public String higherKey(String key)
+    {
+        return keyOf(higherEntry(key));
+    }
+
+    /**
+     * The map is a read only view, so nothing can be taken out of it.
+     *
+     * @throws UnsupportedOperationException
+     */
+    @Override
+    public Entry<String, Integer> pollFirstEntry() throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("TrieNavigableMap is read only");
+    }
+
+    /**
+     * The map is a read only view, so nothing can be taken out of it.
+     *
+     * @throws UnsupportedOperationException
+     */
+    @Override
+    public Entry<String, Integer> pollLastEntry() throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("TrieNavigableMap is read only");
+    }
+
+    @Override
+    public TrieNavigableMap descendingMap()
+    {
+        return new TrieNavigableMap(trie, low, lowInclusive, high, highInclusive, !descending);
+    }
+
+    @Override
+    public NavigableSet<String> navigableKeySet()
+    {
+        return new KeySet(this);
+    }
+
+    @Override
+    public NavigableSet<String> keySet()
+    {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<String> descendingKeySet()
+    {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public TrieNavigableMap subMap(String fromKey, boolean fromInclusive,
+                                   String toKey, boolean toInclusive)
+    {
+        int c = fromKey.compareTo(toKey);
+        if (descending ? c < 0 : c > 0)
+        {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        checkBound(fromKey, fromInclusive);
+        checkBound(toKey, toInclusive);
+        return descending
+                ? new TrieNavigableMap(trie, toKey, toInclusive, fromKey, fromInclusive, true)
+                : new TrieNavigableMap(trie, fromKey, fromInclusive, toKey, toInclusive, false);
+    }
+
+    @Override
+    public TrieNavigableMap headMap(String toKey, boolean inclusive)
+    {
+        checkBound(toKey, inclusive);
+        return descending
+                ? new TrieNavigableMap(trie, toKey, inclusive, high, highInclusive, true)
+                : new TrieNavigableMap(trie, low, lowInclusive, toKey, inclusive, false);
+    }
+
+    @Override
+    public TrieNavigableMap tailMap(String fromKey, boolean inclusive)
+    {
+        checkBound(fromKey, inclusive);
+        return descending
+                ? new TrieNavigableMap(trie, low, lowInclusive, fromKey, inclusive, true)
+                : new TrieNavigableMap(trie, fromKey, inclusive, high, highInclusive, false);
+    }
+
+    @Override
+    public TrieNavigableMap subMap(String fromKey, String toKey)
+    {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public TrieNavigableMap headMap(String toKey)
+    {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public TrieNavigableMap tailMap(String fromKey)
+    {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * The words of a view as a NavigableSet, going the same way as the view.
+     */
+    private static class KeySet extends AbstractSet<String> implements NavigableSet<String>
+    {
+        private final TrieNavigableMap map;
+
+        private KeySet(TrieNavigableMap map)
+        {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<String> iterator()
+        {
+            Iterator<Entry<String, Integer>> entries = map.entryIterator();
+            return new Iterator<String>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public String next()
+                {
+                    return entries.next().getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public Comparator<? super String> comparator()
+        {
+            return map.comparator();
+        }
+
+        @Override
+        public String first()
+        {
+            return map.firstKey();
+        }
+
+        @Override
+        public String last()
+        {
+            return map.lastKey();
+        }
+
+        @Override
+        public String lower(String e)
+        {
+            return map.lowerKey(e);
+        }
+
+        @Override
+        public String floor(String e)
+        {
+            return map.floorKey(e);
+        }
+
+        @Override
+        public String ceiling(String e)
+        {
+            return map.ceilingKey(e);
+        }
+
+        @Override
+        public String higher(String e)
+        {
+            return map.higherKey(e);
+        }
+
+        @Override
+        public String pollFirst()
+        {
+            return keyOf(map.pollFirstEntry());
+        }
+
+        @Override
+        public String pollLast()
+        {
+            return keyOf(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<String> descendingSet()
+        {
+            return map.descendingKeySet();
+        }
+
+        @Override
+        public Iterator<String> descendingIterator()
+        {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<String> subSet(String fromElement, boolean fromInclusive,
+                                           String toElement, boolean toInclusive)
+        {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<String> headSet(String toElement, boolean inclusive)
+        {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<String> tailSet(String fromElement, boolean inclusive)
+        {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<String> subSet(String fromElement, String toElement)
+        {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<String> headSet(String toElement)
+        {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<String> tailSet(String fromElement)
+        {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    // main used a test harness
+    public static void main(String[] args) throws Exception
+    {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        trie.populateTrie(DictionaryFinder.readWordsFromCSV("lotr.csv"));
+        TrieNavigableMap map = new TrieNavigableMap(trie);
+
+        System.out.println(map.size() + " words, first " + map.firstEntry() + ", last "
+                + map.lastEntry());
+        System.out.println("floor 'gandalg' " + map.floorKey("gandalg") + ", ceiling 'gandalg' "
+                + map.ceilingKey("gandalg") + ", lower 'frodo' " + map.lowerKey("frodo")
+                + ", higher 'frodo' " + map.higherKey("frodo"));
+        System.out.println("'fro' words " + map.prefixMap("fro"));
+        System.out.println("'fro' words backwards " + map.prefixMap("fro").descendingMap());
+        System.out.println("'the' to 'they' " + map.subMap("the", "they"));
+        System.out.println("count of 'the' " + map.getCount("the"));
+    }
+}
@@ -0,0 +1,344 @@
+/*******************************************************************************
+ File        : WordCursor.java
+
+ Description : WordCursor walks the words below an AutoCompletionTrieNode in
+               alphabetical order, one word per call to next, using a stack
+               of the nodes on the path to the current word. It can be moved
+               to the word at an offset, using the word count kept in each
+               node to skip whole subtrees, or to just after a given word, so
+               a page of results costs the depth of the trie times the size
+               of the alphabet plus the words on the page, however far into
+               the results the page is. A reverse cursor walks the same words
+               in reverse alphabetical order, visiting the children of each
+               node from z to a and the word of a node after every word below
+               it.
+
+ Author      : Dovydas Novikovas
+
+ Date        : Monday 19th October 2026
+ *******************************************************************************/
+package DSACW2;
+
+import java.util.Arrays;
+
+public class WordCursor
+{
+    private final String prefix;
+    private final boolean reverse;
+    // nodes on the path from the start node, and the next child to visit
+    private AutoCompletionTrieNode[] nodes = new AutoCompletionTrieNode[16];
+    private int[] nextChild = new int[16];
+    private char[] chars;
+    private int depth;
+    // true until the word of the node on top of the stack has been visited
+    private boolean selfPending;
+
+    private AutoCompletionTrieNode current;
+    private int currentLength;
+
+    /**
+     * @param start  - node the words are below, null for no words
+     * @param prefix - characters leading to the start node
+     */
+    public WordCursor(AutoCompletionTrieNode start, String prefix)
+    {
+        this(start, prefix, false);
+    }
+
+    /**
+     * @param start   - node the words are below, null for no words
+     * @param prefix  - characters leading to the start node
+     * @param reverse - true to walk the words in reverse alphabetical order
+     */
+    public WordCursor(AutoCompletionTrieNode start, String prefix, boolean reverse)
+    {
+        this.prefix = prefix;
+        this.reverse = reverse;
+        this.chars = Arrays.copyOf(prefix.toCharArray(), prefix.length() + 16);
+        if (start == null)
+        {
+            depth = -1;
+        }
+        else
+        {
+            depth = 0;
+            nodes[0] = start;
+            nextChild[0] = reverse ? Integer.MAX_VALUE : 0;
+            selfPending = !reverse;
+        }
+    }
+
+    /**
+     * Moves on to the next word in alphabetical order, or in reverse
+     * alphabetical order for a reverse cursor.
+     *
+     * @return true if there was another word; false otherwise
+     */
+    public boolean next()
+    {
+        current = null;
+        if (reverse)
+        {
+            return previous();
+        }
+        while (depth >= 0)
+        {
+            AutoCompletionTrieNode node = nodes[depth];
+            if (selfPending)
+            {
+                selfPending = false;
+                if (node.getIsWord())
+                {
+                    current = node;
+                    currentLength = prefix.length() + depth;
+                    return true;
+                }
+            }
+
+            int i = nextOffspring(node, nextChild[depth]);
+            if (i < 0)
+            {
+                depth--;
+            }
+            else
+            {
+                nextChild[depth] = i + 1;
+                push(node.getOffspringArray()[i], i);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves on to the word before the last one in alphabetical order. A
+     * node is popped once its children are done, and its own word comes
+     * after theirs.
+     */
+    private boolean previous()
+    {
+        while (depth >= 0)
+        {
+            AutoCompletionTrieNode node = nodes[depth];
+            int i = previousOffspring(node, nextChild[depth]);
+            if (i >= 0)
+            {
+                nextChild[depth] = i - 1;
+                push(node.getOffspringArray()[i], i);
+                continue;
+            }
+
+            // the characters of the node stay in the buffer once popped
+            depth--;
+            if (node.getIsWord())
+            {
+                current = node;
+                currentLength = prefix.length() + depth + 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips words without visiting them, stepping over every subtree with
+     * fewer words than are left to skip.
+     *
+     * @param count - number of words to skip
+     */
+    void skip(int count)
+    {
+        if (reverse)
+        {
+            skipBack(count);
+            return;
+        }
+        while (count > 0 && depth >= 0)
+        {
+            AutoCompletionTrieNode node = nodes[depth];
+            if (selfPending)
+            {
+                selfPending = false;
+                if (node.getIsWord())
+                {
+                    count--;
+                }
+                continue;
+            }
+
+            int i = nextOffspring(node, nextChild[depth]);
+            if (i < 0)
+            {
+                depth--;
+                continue;
+            }
+            nextChild[depth] = i + 1;
+            AutoCompletionTrieNode child = node.getOffspringArray()[i];
+            if (child.getWordCount() <= count)
+            {
+                count -= child.getWordCount();
+            }
+            else
+            {
+                push(child, i);
+            }
+        }
+    }
+
+    /**
+     * Skips words of a reverse cursor in the same way as skip.
+     */
+    private void skipBack(int count)
+    {
+        while (count > 0 && depth >= 0)
+        {
+            AutoCompletionTrieNode node = nodes[depth];
+            int i = previousOffspring(node, nextChild[depth]);
+            if (i < 0)
+            {
+                depth--;
+                if (node.getIsWord())
+                {
+                    count--;
+                }
+                continue;
+            }
+            nextChild[depth] = i - 1;
+            AutoCompletionTrieNode child = node.getOffspringArray()[i];
+            if (child.getWordCount() <= count)
+            {
+                count -= child.getWordCount();
+            }
+            else
+            {
+                push(child, i);
+            }
+        }
+    }
+
+    /**
+     * Moves the cursor to the word passed in, following its characters down
+     * from the start node. Only used on a cursor in alphabetical order.
+     *
+     * @param word      - word to move to, which does not have to be in the trie
+     * @param inclusive - true to stop before the word; false to stop after it
+     */
+    void seek(String word, boolean inclusive)
+    {
+        if (depth < 0)
+        {
+            return;
+        }
+        int common = Math.min(word.length(), prefix.length());
+        for (int i = 0; i < common; i++)
+        {
+            if (word.charAt(i) != prefix.charAt(i))
+            {
+                if (word.charAt(i) > prefix.charAt(i))
+                {
+                    // every word with the prefix comes before the word
+                    depth = -1;
+                }
+                return;
+            }
+        }
+        if (word.length() < prefix.length())
+        {
+            // the word is a prefix of the prefix so comes first
+            return;
+        }
+
+        for (int j = prefix.length(); j < word.length(); j++)
+        {
+            AutoCompletionTrieNode node = nodes[depth];
+            // the node is a prefix of the word so comes before it
+            selfPending = false;
+
+            int index = word.charAt(j) - 'a';
+            if (index < 0)
+            {
+                return;
+            }
+            AutoCompletionTrieNode[] offspring = node.getOffspringArray();
+            if (index >= offspring.length)
+            {
+                nextChild[depth] = offspring.length;
+                return;
+            }
+            nextChild[depth] = index + 1;
+            if (offspring[index] == null)
+            {
+                return;
+            }
+            push(offspring[index], index);
+        }
+        selfPending = inclusive;
+    }
+
+    private void push(AutoCompletionTrieNode child, int index)
+    {
+        depth++;
+        if (depth == nodes.length)
+        {
+            nodes = Arrays.copyOf(nodes, depth * 2);
+            nextChild = Arrays.copyOf(nextChild, depth * 2);
+        }
+        if (prefix.length() + depth > chars.length)
+        {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        nodes[depth] = child;
+        nextChild[depth] = reverse ? Integer.MAX_VALUE : 0;
+        chars[prefix.length() + depth - 1] = (char) ('a' + index);
+        selfPending = !reverse;
+    }
+
+    private static int nextOffspring(AutoCompletionTrieNode node, int from)
+    {
+        AutoCompletionTrieNode[] offspring = node.getOffspringArray();
+        for (int i = from; i < offspring.length; i++)
+        {
+            if (offspring[i] != null)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int previousOffspring(AutoCompletionTrieNode node, int from)
+    {
+        AutoCompletionTrieNode[] offspring = node.getOffspringArray();
+        for (int i = Math.min(from, offspring.length - 1); i >= 0; i--)
+        {
+            if (offspring[i] != null)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the word found by the last call to next
+     */
+    public String getWord()
+    {
+        return new String(chars, 0, currentLength);
+    }
+
+    /**
+     * @return the count of the word found by the last call to next
+     */
+    public int getCount()
+    {
+        return current.getCount();
+    }
+
+    /**
+     * @return the node of the word found by the last call to next
+     */
+    AutoCompletionTrieNode getNode()
+    {
+        return current;
+    }
+}